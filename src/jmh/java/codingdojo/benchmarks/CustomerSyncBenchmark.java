@@ -0,0 +1,146 @@
+package codingdojo.benchmarks;
+
+import codingdojo.CustomerSync;
+import codingdojo.models.Address;
+import codingdojo.models.Customer;
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.ShoppingList;
+import codingdojo.models.SyncResult;
+import codingdojo.repositories.InMemoryCustomerRespository;
+import codingdojo.types.CustomerType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CustomerSyncBenchmark {
+    private static final int CUSTOMERS = 10_000;
+
+    @Param({"1", "10", "50"})
+    public int shoppingListCount;
+
+    @Param({"100"})
+    public int batchSize;
+
+    private InMemoryCustomerRespository customerRespository;
+    private CustomerSync customerSync;
+    private List<ShoppingList> shoppingLists;
+    private ExternalCustomer person;
+    private ExternalCustomer company;
+    private ExternalCustomer companyWithDuplicate;
+    private List<ExternalCustomer> batch;
+    private long sequence;
+    private int unkeyedCompany;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        unkeyedCompany = 0;
+        customerRespository = new InMemoryCustomerRespository();
+        customerSync = new CustomerSync(customerRespository);
+        shoppingLists = new ArrayList<>(shoppingListCount);
+        for (int i = 0; i < shoppingListCount; i++) {
+            shoppingLists.add(new ShoppingList("lipstick-" + i, "blusher-" + i, "eyeliner-" + i));
+        }
+
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerRespository.create(customer("person-" + i, null, CustomerType.PERSON));
+            customerRespository.create(customer(null, "company-" + i, CustomerType.COMPANY));
+        }
+
+        person = externalCustomer("person-0", null);
+        company = externalCustomer("company-ext", "company-ext-number");
+        customerRespository.create(customer("company-ext", "company-ext-number", CustomerType.COMPANY));
+
+        companyWithDuplicate = externalCustomer("company-dup", "company-dup-number");
+        customerRespository.create(customer("company-dup", "company-dup-number", CustomerType.COMPANY));
+        Customer duplicate = customer(null, "company-dup-old-number", CustomerType.COMPANY);
+        duplicate.setMasterExternalId("company-dup");
+        customerRespository.create(duplicate);
+
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(externalCustomer("person-" + i, null));
+        }
+    }
+
+    @Benchmark
+    public SyncResult syncNewPerson() {
+        return customerSync.sync(externalCustomer("new-person-" + sequence++, null));
+    }
+
+    @Benchmark
+    public SyncResult syncPersonByExternalId() {
+        person.setBonusPointsBalance((int) sequence++);
+        return customerSync.sync(person);
+    }
+
+    @Benchmark
+    public SyncResult syncCompanyByExternalId() {
+        company.setName("Acme Inc. " + (sequence++ & 1));
+        return customerSync.sync(company);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = CUSTOMERS)
+    @Measurement(iterations = 5, batchSize = CUSTOMERS)
+    public SyncResult syncCompanyByCompanyNumber() {
+        int i = unkeyedCompany++;
+        return customerSync.sync(externalCustomer("rekeyed-" + i, "company-" + i));
+    }
+
+    @Benchmark
+    public SyncResult syncCompanyWithDuplicate() {
+        companyWithDuplicate.setName("Acme Inc. " + (sequence++ & 1));
+        return customerSync.sync(companyWithDuplicate);
+    }
+
+    @Benchmark
+    public List<SyncResult> syncBatch() {
+        int bonusPointsBalance = (int) sequence++;
+        for (ExternalCustomer externalCustomer : batch) {
+            externalCustomer.setBonusPointsBalance(bonusPointsBalance);
+        }
+        return customerSync.syncExternalCustomers(batch);
+    }
+
+    private ExternalCustomer externalCustomer(String externalId, String companyNumber) {
+        ExternalCustomer externalCustomer = new ExternalCustomer();
+        externalCustomer.setExternalId(externalId);
+        externalCustomer.setCompanyNumber(companyNumber);
+        externalCustomer.setName("Acme Inc.");
+        externalCustomer.setAddress(new Address("123 main st", "Helsingborg", "SE-123 45"));
+        externalCustomer.setShoppingLists(shoppingLists);
+
+        return externalCustomer;
+    }
+
+    private Customer customer(String externalId, String companyNumber, CustomerType customerType) {
+        Customer customer = new Customer();
+        customer.setExternalId(externalId);
+        customer.setMasterExternalId(externalId);
+        customer.setCompanyNumber(companyNumber);
+        customer.setCustomerType(customerType);
+
+        return customer;
+    }
+}
@@ -1,138 +1,582 @@
 package codingdojo;
 
+import codingdojo.models.ChangeEvent;
 import codingdojo.models.Customer;
 import codingdojo.models.ExternalCustomer;
 import codingdojo.models.ShoppingList;
+import codingdojo.models.SyncConflict;
+import codingdojo.models.SyncResult;
+import codingdojo.exceptions.ConcurrentUpdateException;
 import codingdojo.exceptions.ConflictException;
+import codingdojo.repositories.AsyncCustomerRepository;
+import codingdojo.repositories.ChangeSink;
 import codingdojo.repositories.CustomerRespository;
+import codingdojo.services.CustomerKeyFilter;
 import codingdojo.services.CustomerService;
 import codingdojo.services.CustomerMatchesService;
+import codingdojo.services.FingerprintStore;
+import codingdojo.services.SyncMetrics;
+import codingdojo.services.UnitOfWork;
+import codingdojo.types.ChangeType;
+import codingdojo.types.CustomerField;
 import codingdojo.types.CustomerType;
+import codingdojo.types.SyncOutcome;
+import codingdojo.types.SyncPhase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class CustomerSync {
 
     private final CustomerService customerService;
+    private FingerprintStore fingerprintStore;
+    private ChangeSink changeSink;
+    private SyncMetrics metrics = SyncMetrics.NOOP;
+    private int maxSyncAttempts = 3;
 
     public CustomerSync(CustomerRespository customerRespository) {
         customerService = new CustomerService(customerRespository);
     }
 
+    public CustomerSync(AsyncCustomerRepository asyncCustomerRepository) {
+        customerService = new CustomerService(asyncCustomerRepository);
+    }
+
+    public boolean isSpeculativeCompanyLookups() {
+        return customerService.isSpeculativeLookups();
+    }
+
+    public void setSpeculativeCompanyLookups(boolean speculativeCompanyLookups) {
+        customerService.setSpeculativeLookups(speculativeCompanyLookups);
+    }
+
+    public CustomerKeyFilter getKeyFilter() {
+        return customerService.getKeyFilter();
+    }
+
+    public void setKeyFilter(CustomerKeyFilter keyFilter) {
+        customerService.setKeyFilter(keyFilter);
+    }
+
+    public FingerprintStore getFingerprintStore() {
+        return fingerprintStore;
+    }
+
+    public void setFingerprintStore(FingerprintStore fingerprintStore) {
+        this.fingerprintStore = fingerprintStore;
+    }
+
+    public ChangeSink getChangeSink() {
+        return changeSink;
+    }
+
+    public void setChangeSink(ChangeSink changeSink) {
+        this.changeSink = changeSink;
+    }
+
+    public SyncMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(SyncMetrics metrics) {
+        this.metrics = metrics == null ? SyncMetrics.NOOP : metrics;
+    }
+
+    public int getMaxSyncAttempts() {
+        return maxSyncAttempts;
+    }
+
+    public void setMaxSyncAttempts(int maxSyncAttempts) {
+        if (maxSyncAttempts <= 0) {
+            throw new IllegalArgumentException("maxSyncAttempts must be positive but was " + maxSyncAttempts);
+        }
+        this.maxSyncAttempts = maxSyncAttempts;
+    }
+
     public boolean syncExternalCustomer(ExternalCustomer externalCustomer) throws ConflictException {
-        boolean created = false;
+        return sync(externalCustomer).isCreated();
+    }
+
+    public SyncResult sync(ExternalCustomer externalCustomer) throws ConflictException {
+        SyncResult result = sync(externalCustomer, customerService);
+        if (result.isConflict()) {
+            throw new ConflictException(result.getConflict());
+        }
+
+        return result;
+    }
+
+    public SyncResult trySync(ExternalCustomer externalCustomer) {
+        return trySync(externalCustomer, customerService);
+    }
+
+    public List<SyncResult> syncExternalCustomers(Collection<ExternalCustomer> externalCustomers) {
+        CustomerService batchService = prefetch(externalCustomers);
+        List<SyncResult> results = new ArrayList<>(externalCustomers.size());
+
+        for (ExternalCustomer externalCustomer : externalCustomers) {
+            results.add(trySync(externalCustomer, batchService));
+        }
+
+        return results;
+    }
+
+    public List<SyncResult> bulkLoad(Collection<ExternalCustomer> externalCustomers) {
+        CustomerService batchService = prefetch(externalCustomers);
+        UnitOfWork unitOfWork = batchService.beginUnitOfWork();
+        SyncResult[] results = new SyncResult[externalCustomers.size()];
+        List<ExternalCustomer> created = new ArrayList<>();
+        List<PendingChange> changes = newChanges();
+        Set<String> claimedKeys = new HashSet<>();
+
+        int i = 0;
+        for (ExternalCustomer externalCustomer : externalCustomers) {
+            long started = metrics.nanoTime();
+            if (isKnownNew(externalCustomer, batchService, claimedKeys)) {
+                metrics.recordPhase(SyncPhase.LOAD, metrics.nanoTime() - started);
+                Set<CustomerField> changedFields = EnumSet.noneOf(CustomerField.class);
+                applyMatches(externalCustomer, new CustomerMatchesService(), unitOfWork, changedFields, changes);
+                results[i] = SyncResult.created(externalCustomer.getExternalId(), changedFields);
+                created.add(externalCustomer);
+            }
+            i++;
+        }
+
+        try {
+            unitOfWork.commit(metrics);
+            publishChanges(changes);
+        } catch (ConcurrentUpdateException e) {
+            metrics.recordRetry();
+            Arrays.fill(results, null);
+            created.clear();
+            batchService = customerService;
+        } catch (ConflictException e) {
+            Arrays.fill(results, null);
+            created.clear();
+        }
+        for (ExternalCustomer externalCustomer : created) {
+            metrics.recordOutcome(SyncOutcome.CREATED);
+            metrics.recordRepositoryCalls(Math.ceilDiv(unitOfWork.getRepositoryCalls(), created.size()));
+            rememberFingerprint(externalCustomer);
+        }
+
+        i = 0;
+        for (ExternalCustomer externalCustomer : externalCustomers) {
+            if (results[i] == null) {
+                results[i] = trySync(externalCustomer, batchService);
+            }
+            i++;
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private static boolean isKnownNew(ExternalCustomer externalCustomer, CustomerService batchService, Set<String> claimedKeys) {
+        String externalId = externalCustomer.getExternalId();
+        String companyNumber = externalCustomer.isCompany() ? externalCustomer.getCompanyNumber() : null;
+
+        boolean unclaimed = claimedKeys.add("E:" + externalId);
+        if (companyNumber != null) {
+            unclaimed &= claimedKeys.add("C:" + companyNumber);
+        }
+
+        return unclaimed && batchService.isKnownNew(externalId, companyNumber);
+    }
+
+    private CustomerService prefetch(Collection<ExternalCustomer> externalCustomers) {
+        Set<String> externalIds = new LinkedHashSet<>();
+        Set<String> companyNumbers = new LinkedHashSet<>();
+        for (ExternalCustomer externalCustomer : externalCustomers) {
+            if (isUnchangedSinceLastSync(externalCustomer)) {
+                continue;
+            }
+            if (externalCustomer.getExternalId() != null) {
+                externalIds.add(externalCustomer.getExternalId());
+            }
+            if (externalCustomer.isCompany()) {
+                companyNumbers.add(externalCustomer.getCompanyNumber());
+            }
+        }
+
+        return customerService.prefetch(externalIds, companyNumbers);
+    }
+
+    private boolean isUnchangedSinceLastSync(ExternalCustomer externalCustomer) {
+        return fingerprintStore != null && externalCustomer.getExternalId() != null
+                && fingerprintStore.matches(externalCustomer.getExternalId(), externalCustomer.fingerprint());
+    }
+
+    private SyncResult sync(ExternalCustomer externalCustomer, CustomerService customerService) {
+        if (isUnchangedSinceLastSync(externalCustomer)) {
+            metrics.recordOutcome(SyncOutcome.UNCHANGED);
+            return SyncResult.unchanged(externalCustomer.getExternalId());
+        }
+
+        return recordResult(externalCustomer, syncWithRetries(externalCustomer, customerService));
+    }
+
+    private SyncResult trySync(ExternalCustomer externalCustomer, CustomerService customerService) {
+        try {
+            return sync(externalCustomer, customerService);
+        } catch (ConcurrentUpdateException e) {
+            return recordResult(externalCustomer, SyncResult.conflict(externalCustomer.getExternalId(),
+                    SyncConflict.concurrentUpdate(externalCustomer.getExternalId(), e.getMessage())));
+        }
+    }
+
+    private SyncResult recordResult(ExternalCustomer externalCustomer, SyncResult result) {
+        if (result.isConflict()) {
+            metrics.recordConflict(result.getConflictType());
+            return result;
+        }
+
+        metrics.recordOutcome(result.getOutcome());
+        rememberFingerprint(externalCustomer);
+
+        return result;
+    }
+
+    private void rememberFingerprint(ExternalCustomer externalCustomer) {
+        if (fingerprintStore != null && externalCustomer.getExternalId() != null) {
+            fingerprintStore.put(externalCustomer.getExternalId(), externalCustomer.fingerprint());
+        }
+    }
+
+    private SyncResult syncWithRetries(ExternalCustomer externalCustomer, CustomerService customerService) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return syncWithRepository(externalCustomer, customerService);
+            } catch (ConcurrentUpdateException e) {
+                if (attempt >= maxSyncAttempts) {
+                    throw e;
+                }
+                metrics.recordRetry();
+                customerService = this.customerService;
+            }
+        }
+    }
+
+    private SyncResult syncWithRepository(ExternalCustomer externalCustomer, CustomerService customerService) {
+        long started = metrics.nanoTime();
         CustomerMatchesService customerMatchesService;
 
         if (externalCustomer.isCompany()) {
-            customerMatchesService = loadCompany(externalCustomer);
+            customerMatchesService = loadCompany(externalCustomer, customerService);
         } else {
-            customerMatchesService = loadPerson(externalCustomer);
+            customerMatchesService = loadPerson(externalCustomer, customerService);
+        }
+
+        if (customerMatchesService.getConflict() != null) {
+            metrics.recordRepositoryCalls(customerMatchesService.getLookups());
+            return SyncResult.conflict(externalCustomer.getExternalId(), customerMatchesService.getConflict());
         }
 
+        long loaded = metrics.nanoTime();
+        metrics.recordPhase(SyncPhase.LOAD, loaded - started);
+
+        Set<CustomerField> changedFields = EnumSet.noneOf(CustomerField.class);
+        UnitOfWork unitOfWork = customerService.beginUnitOfWork();
+        List<PendingChange> changes = newChanges();
+        boolean created = applyMatches(externalCustomer, customerMatchesService, unitOfWork, changedFields, changes);
+
+        if (!unitOfWork.hasChanges()) {
+            metrics.recordRepositoryCalls(customerMatchesService.getLookups());
+            return SyncResult.unchanged(externalCustomer.getExternalId(), customerMatchesService.getMatchTerm());
+        }
+
+        try {
+            unitOfWork.commit(metrics);
+        } catch (ConflictException e) {
+            metrics.recordRepositoryCalls(customerMatchesService.getLookups() + unitOfWork.getRepositoryCalls());
+            return SyncResult.conflict(externalCustomer.getExternalId(), e.getConflict());
+        }
+        publishChanges(changes);
+        metrics.recordRepositoryCalls(customerMatchesService.getLookups() + unitOfWork.getRepositoryCalls());
+
+        return toResult(externalCustomer, created, changedFields, customerMatchesService);
+    }
+
+    public CompletableFuture<SyncResult> syncExternalCustomerAsync(ExternalCustomer externalCustomer) {
+        if (isUnchangedSinceLastSync(externalCustomer)) {
+            metrics.recordOutcome(SyncOutcome.UNCHANGED);
+            return CompletableFuture.completedFuture(SyncResult.unchanged(externalCustomer.getExternalId()));
+        }
+
+        return syncWithRetriesAsync(externalCustomer, 1).thenApply(result -> recordResult(externalCustomer, result));
+    }
+
+    private CompletableFuture<SyncResult> syncWithRetriesAsync(ExternalCustomer externalCustomer, int attempt) {
+        return syncWithRepositoryAsync(externalCustomer).handle((result, failure) -> {
+            if (failure == null) {
+                return CompletableFuture.completedFuture(result);
+            }
+            if (causeOf(failure) instanceof ConflictException) {
+                return CompletableFuture.completedFuture(
+                        SyncResult.conflict(externalCustomer.getExternalId(), ((ConflictException) causeOf(failure)).getConflict()));
+            }
+            if (causeOf(failure) instanceof ConcurrentUpdateException && attempt < maxSyncAttempts) {
+                metrics.recordRetry();
+                return syncWithRetriesAsync(externalCustomer, attempt + 1);
+            }
+            return CompletableFuture.<SyncResult>failedFuture(failure);
+        }).thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<SyncResult> syncWithRepositoryAsync(ExternalCustomer externalCustomer) {
+        String externalId = externalCustomer.getExternalId();
+        long started = metrics.nanoTime();
+        CompletableFuture<CustomerMatchesService> matches;
+
+        if (externalCustomer.isCompany()) {
+            matches = customerService.loadCompanyCustomerAsync(externalId, externalCustomer.getCompanyNumber())
+                    .thenApply(customerMatchesService -> resolveCompanyMatches(externalCustomer, customerMatchesService));
+        } else {
+            matches = customerService.loadPersonCustomerAsync(externalId)
+                    .thenApply(customerMatchesService -> resolvePersonMatches(externalCustomer, customerMatchesService));
+        }
+
+        return matches.thenCompose(customerMatchesService -> {
+            if (customerMatchesService.getConflict() != null) {
+                metrics.recordRepositoryCalls(customerMatchesService.getLookups());
+                return CompletableFuture.completedFuture(SyncResult.conflict(externalId, customerMatchesService.getConflict()));
+            }
+
+            long loaded = metrics.nanoTime();
+            metrics.recordPhase(SyncPhase.LOAD, loaded - started);
+
+            Set<CustomerField> changedFields = EnumSet.noneOf(CustomerField.class);
+            UnitOfWork unitOfWork = customerService.beginUnitOfWork();
+            List<PendingChange> changes = newChanges();
+            boolean created = applyMatches(externalCustomer, customerMatchesService, unitOfWork, changedFields, changes);
+
+            if (!unitOfWork.hasChanges()) {
+                metrics.recordRepositoryCalls(customerMatchesService.getLookups());
+                return CompletableFuture.completedFuture(SyncResult.unchanged(externalId, customerMatchesService.getMatchTerm()));
+            }
+
+            return unitOfWork.commitAsync(metrics).thenApply(committed -> {
+                publishChanges(changes);
+                metrics.recordRepositoryCalls(customerMatchesService.getLookups() + unitOfWork.getRepositoryCalls());
+                return toResult(externalCustomer, created, changedFields, customerMatchesService);
+            });
+        });
+    }
+
+    private static Throwable causeOf(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private boolean applyMatches(ExternalCustomer externalCustomer, CustomerMatchesService customerMatchesService,
+                                 UnitOfWork unitOfWork, Set<CustomerField> changedFields, List<PendingChange> changes) {
+        long started = metrics.nanoTime();
         Customer customer = customerMatchesService.getCustomer();
 
         if (customer == null) {
             customer = new Customer();
             customer.setExternalId(externalCustomer.getExternalId());
             customer.setMasterExternalId(externalCustomer.getExternalId());
+            changedFields.add(CustomerField.EXTERNAL_ID);
+            changedFields.add(CustomerField.MASTER_EXTERNAL_ID);
+        } else if (CustomerService.COMPANY_NUMBER.equals(customerMatchesService.getMatchTerm())) {
+            changedFields.add(CustomerField.EXTERNAL_ID);
+            changedFields.add(CustomerField.MASTER_EXTERNAL_ID);
         }
 
-        populateFields(externalCustomer, customer);
-        updatePreferredStore(externalCustomer, customer);
-        updateContactInfo(externalCustomer, customer);
+        mapFields(externalCustomer, customer, changedFields);
 
-        if (customer.getInternalId() == null) {
-            customer = createCustomer(customer);
-            created = true;
-        } else {
-            customer = updateCustomer(customer);
+        boolean created = customer.getInternalId() == null;
+
+        if (created) {
+            unitOfWork.registerNew(customer);
+        } else if (!changedFields.isEmpty()) {
+            unitOfWork.registerDirty(customer);
         }
 
-        updateRelations(externalCustomer, customer);
+        updateRelations(externalCustomer, customer, unitOfWork, changedFields);
+        if (changes != null && (created || !changedFields.isEmpty())) {
+            changes.add(new PendingChange(created ? ChangeType.CREATED : ChangeType.UPDATED, customer, changedFields,
+                    created ? null : customerMatchesService.getPreviousMasterExternalId(customer)));
+        }
+        long populated = metrics.nanoTime();
+        metrics.recordPhase(SyncPhase.POPULATE, populated - started);
 
         if (customerMatchesService.hasDuplicates()) {
+            int touched = 0;
             for (Customer duplicate : customerMatchesService.getDuplicates()) {
-                updateDuplicate(externalCustomer, duplicate);
+                if (updateDuplicate(externalCustomer, customer, duplicate, customerMatchesService, unitOfWork, changes)) {
+                    touched++;
+                }
             }
+            metrics.recordPhase(SyncPhase.DUPLICATES, metrics.nanoTime() - populated);
+            metrics.recordDuplicates(touched);
+            customerMatchesService.setDuplicatesTouched(touched);
         }
 
         return created;
     }
 
-    private void updateRelations(ExternalCustomer externalCustomer, Customer customer) {
-        for (ShoppingList consumerShoppingList : externalCustomer.getShoppingLists()) {
-            this.customerService.updateShoppingList(customer, consumerShoppingList);
-        }
+    private static SyncResult toResult(ExternalCustomer externalCustomer, boolean created, Set<CustomerField> changedFields,
+                                       CustomerMatchesService customerMatchesService) {
+        String matchedBy = customerMatchesService.getMatchTerm();
+        int duplicatesTouched = customerMatchesService.getDuplicatesTouched();
+
+        return created
+                ? SyncResult.created(externalCustomer.getExternalId(), changedFields, matchedBy, duplicatesTouched)
+                : SyncResult.updated(externalCustomer.getExternalId(), changedFields, matchedBy, duplicatesTouched);
     }
 
-    private Customer updateCustomer(Customer customer) {
-        return this.customerService.updateCustomerRecord(customer);
+    private void updateRelations(ExternalCustomer externalCustomer, Customer customer, UnitOfWork unitOfWork, Set<CustomerField> changedFields) {
+        List<ShoppingList> addedShoppingLists = customer.mergeShoppingLists(externalCustomer.getShoppingLists());
+
+        if (!addedShoppingLists.isEmpty()) {
+            unitOfWork.registerShoppingLists(customer, addedShoppingLists);
+            changedFields.add(CustomerField.SHOPPING_LISTS);
+        }
     }
 
-    private void updateDuplicate(ExternalCustomer externalCustomer, Customer duplicate) {
+    private boolean updateDuplicate(ExternalCustomer externalCustomer, Customer customer, Customer duplicate,
+                                    CustomerMatchesService customerMatchesService, UnitOfWork unitOfWork, List<PendingChange> changes) {
+        if (duplicate != null && duplicate.getInternalId() != null && duplicate.getInternalId().equals(customer.getInternalId())) {
+            return false;
+        }
+
+        ChangeType changeType = ChangeType.UPDATED;
+        Set<CustomerField> changedFields = EnumSet.noneOf(CustomerField.class);
         if (duplicate == null) {
             duplicate = new Customer();
             duplicate.setExternalId(externalCustomer.getExternalId());
             duplicate.setMasterExternalId(externalCustomer.getExternalId());
+            changeType = ChangeType.CREATED;
+            changedFields.add(CustomerField.EXTERNAL_ID);
+            changedFields.add(CustomerField.MASTER_EXTERNAL_ID);
+        } else if (customerMatchesService.isChangedDuplicate(duplicate)) {
+            changeType = ChangeType.DUPLICATE_DEMOTED;
+            changedFields.add(CustomerField.MASTER_EXTERNAL_ID);
+        } else if (Objects.equals(duplicate.getName(), externalCustomer.getName())) {
+            return false;
         }
 
-        duplicate.setName(externalCustomer.getName());
+        apply(duplicate.getName(), externalCustomer.getName(), duplicate::setName, CustomerField.NAME, changedFields);
+        unitOfWork.registerDuplicate(duplicate);
+        if (changes != null) {
+            changes.add(new PendingChange(changeType, duplicate, changedFields,
+                    changeType == ChangeType.CREATED ? null : customerMatchesService.getPreviousMasterExternalId(duplicate)));
+        }
 
-        if (duplicate.getInternalId() == null) {
-            createCustomer(duplicate);
-        } else {
-            updateCustomer(duplicate);
+        return true;
+    }
+
+    private List<PendingChange> newChanges() {
+        return changeSink == null ? null : new ArrayList<>(2);
+    }
+
+    private void publishChanges(List<PendingChange> changes) {
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+
+        List<ChangeEvent> changeEvents = new ArrayList<>(changes.size());
+        for (PendingChange change : changes) {
+            changeEvents.add(change.toEvent());
         }
+        changeSink.publish(changeEvents);
     }
 
-    private void updatePreferredStore(ExternalCustomer externalCustomer, Customer customer) {
-        customer.setPreferredStore(externalCustomer.getPreferredStore());
+    void mapFields(ExternalCustomer externalCustomer, Customer customer, Set<CustomerField> changedFields) {
+        populateFields(externalCustomer, customer, changedFields);
+        updatePreferredStore(externalCustomer, customer, changedFields);
+        updateContactInfo(externalCustomer, customer, changedFields);
     }
 
-    private Customer createCustomer(Customer customer) {
-        return this.customerService.createCustomerRecord(customer);
+    private void updatePreferredStore(ExternalCustomer externalCustomer, Customer customer, Set<CustomerField> changedFields) {
+        apply(customer.getPreferredStore(), externalCustomer.getPreferredStore(), customer::setPreferredStore, CustomerField.PREFERRED_STORE, changedFields);
     }
 
-    private void populateFields(ExternalCustomer externalCustomer, Customer customer) {
-        customer.setName(externalCustomer.getName());
+    private void populateFields(ExternalCustomer externalCustomer, Customer customer, Set<CustomerField> changedFields) {
+        apply(customer.getName(), externalCustomer.getName(), customer::setName, CustomerField.NAME, changedFields);
 
         if (externalCustomer.isCompany()) {
-            customer.setCompanyNumber(externalCustomer.getCompanyNumber());
-            customer.setCustomerType(CustomerType.COMPANY);
+            apply(customer.getCompanyNumber(), externalCustomer.getCompanyNumber(), customer::setCompanyNumber, CustomerField.COMPANY_NUMBER, changedFields);
+            apply(customer.getCustomerType(), CustomerType.COMPANY, customer::setCustomerType, CustomerField.CUSTOMER_TYPE, changedFields);
         } else {
-            customer.setCustomerType(CustomerType.PERSON);
-            customer.setBonusPointsBalance(externalCustomer.getBonusPointsBalance());
+            apply(customer.getCustomerType(), CustomerType.PERSON, customer::setCustomerType, CustomerField.CUSTOMER_TYPE, changedFields);
+            apply(customer.getBonusPointsBalance(), externalCustomer.getBonusPointsBalance(), customer::setBonusPointsBalance, CustomerField.BONUS_POINTS_BALANCE, changedFields);
         }
     }
 
-    private void updateContactInfo(ExternalCustomer externalCustomer, Customer customer) {
-        customer.setAddress(externalCustomer.getPostalAddress());
+    private void updateContactInfo(ExternalCustomer externalCustomer, Customer customer, Set<CustomerField> changedFields) {
+        apply(customer.getAddress(), externalCustomer.getPostalAddress(), customer::setAddress, CustomerField.ADDRESS, changedFields);
+    }
+
+    private static <T> void apply(T current, T incoming, Consumer<T> setter, CustomerField field, Set<CustomerField> changedFields) {
+        if (!Objects.equals(current, incoming)) {
+            setter.accept(incoming);
+            changedFields.add(field);
+        }
     }
 
     public CustomerMatchesService loadCompany(ExternalCustomer externalCustomer) throws ConflictException {
+        return throwIfConflict(loadCompany(externalCustomer, this.customerService));
+    }
+
+    private static CustomerMatchesService throwIfConflict(CustomerMatchesService customerMatchesService) throws ConflictException {
+        if (customerMatchesService.getConflict() != null) {
+            throw new ConflictException(customerMatchesService.getConflict());
+        }
+
+        return customerMatchesService;
+    }
+
+    private CustomerMatchesService loadCompany(ExternalCustomer externalCustomer, CustomerService customerService) {
+        CustomerMatchesService customerMatchesService = customerService.loadCompanyCustomer(
+                externalCustomer.getExternalId(), externalCustomer.getCompanyNumber());
+
+        return resolveCompanyMatches(externalCustomer, customerMatchesService);
+    }
+
+    private CustomerMatchesService resolveCompanyMatches(ExternalCustomer externalCustomer, CustomerMatchesService customerMatchesService) {
         String externalId = externalCustomer.getExternalId();
         String companyNumber = externalCustomer.getCompanyNumber();
 
-        CustomerMatchesService customerMatchesService = customerService.loadCompanyCustomer(externalId, companyNumber);
-
         if (customerMatchesService.getCustomer() != null && !CustomerType.COMPANY.equals(customerMatchesService.getCustomer().getCustomerType())) {
-            throw new ConflictException("Existing customer for externalCustomer " + externalId + " already exists and is not a company");
+            customerMatchesService.setConflict(SyncConflict.notACompany(externalId));
+            return customerMatchesService;
         }
 
         if (CustomerService.EXTERNAL_ID.equals(customerMatchesService.getMatchTerm())) {
             String customerCompanyNumber = customerMatchesService.getCustomer().getCompanyNumber();
+            Customer companyNumberOwner = customerMatchesService.getCompanyNumberOwner();
+            if (!companyNumber.equals(customerCompanyNumber) && companyNumberOwner != null) {
+                customerMatchesService.setConflict(SyncConflict.companyNumberTaken(companyNumber, externalId, companyNumberOwner.getExternalId()));
+                return customerMatchesService;
+            }
             if (!companyNumber.equals(customerCompanyNumber)) {
+                customerMatchesService.rememberMasterExternalId(customerMatchesService.getCustomer());
                 customerMatchesService.getCustomer().setMasterExternalId(null);
-                customerMatchesService.addDuplicate(customerMatchesService.getCustomer());
+                customerMatchesService.addChangedDuplicate(customerMatchesService.getCustomer());
                 customerMatchesService.setCustomer(null);
                 customerMatchesService.setMatchTerm(null);
             }
         } else if (CustomerService.COMPANY_NUMBER.equals(customerMatchesService.getMatchTerm())) {
             String customerExternalId = customerMatchesService.getCustomer().getExternalId();
             if (customerExternalId != null && !externalId.equals(customerExternalId)) {
-                throw new ConflictException("Existing customer for externalCustomer " + companyNumber +
-                        " doesn't match external id " + externalId + " instead found " + customerExternalId);
+                customerMatchesService.setConflict(SyncConflict.companyNumberTaken(companyNumber, externalId, customerExternalId));
+                return customerMatchesService;
             }
 
             Customer customer = customerMatchesService.getCustomer();
+            customerMatchesService.rememberMasterExternalId(customer);
             customer.setExternalId(externalId);
             customer.setMasterExternalId(externalId);
             customerMatchesService.addDuplicate(null);
@@ -142,24 +586,53 @@ public class CustomerSync {
     }
 
     public CustomerMatchesService loadPerson(ExternalCustomer externalCustomer) throws ConflictException {
+        return throwIfConflict(loadPerson(externalCustomer, this.customerService));
+    }
+
+    private CustomerMatchesService loadPerson(ExternalCustomer externalCustomer, CustomerService customerService) {
+        CustomerMatchesService customerMatchesService = customerService.loadPersonCustomer(externalCustomer.getExternalId());
+
+        return resolvePersonMatches(externalCustomer, customerMatchesService);
+    }
+
+    private CustomerMatchesService resolvePersonMatches(ExternalCustomer externalCustomer, CustomerMatchesService customerMatchesService) {
         String externalId = externalCustomer.getExternalId();
-        CustomerMatchesService customerMatchesService = customerService.loadPersonCustomer(externalId);
 
         if (customerMatchesService.getCustomer() == null) {
             return customerMatchesService;
         }
 
         if (!CustomerType.PERSON.equals(customerMatchesService.getCustomer().getCustomerType())) {
-            throw new ConflictException("Existing customer for externalCustomer " +
-                    externalId + " already exists and is not a person");
+            customerMatchesService.setConflict(SyncConflict.notAPerson(externalId));
+            return customerMatchesService;
         }
 
         if (!CustomerService.EXTERNAL_ID.equals(customerMatchesService.getMatchTerm())) {
             Customer customer = customerMatchesService.getCustomer();
+            customerMatchesService.rememberMasterExternalId(customer);
             customer.setExternalId(externalId);
             customer.setMasterExternalId(externalId);
         }
 
         return customerMatchesService;
     }
+
+    private static final class PendingChange {
+        private final ChangeType changeType;
+        private final Customer customer;
+        private final Set<CustomerField> changedFields;
+        private final String previousMasterExternalId;
+
+        PendingChange(ChangeType changeType, Customer customer, Set<CustomerField> changedFields, String previousMasterExternalId) {
+            this.changeType = changeType;
+            this.customer = customer;
+            this.changedFields = changedFields;
+            this.previousMasterExternalId = previousMasterExternalId;
+        }
+
+        ChangeEvent toEvent() {
+            return new ChangeEvent(changeType, customer.getInternalId(), customer.getExternalId(), changedFields,
+                    previousMasterExternalId, customer.getMasterExternalId());
+        }
+    }
 }
@@ -0,0 +1,178 @@
+package codingdojo;
+
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.SyncResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ParallelCustomerSync implements AutoCloseable {
+    private static final String EXTERNAL_ID_KEY = "E:";
+    private static final String COMPANY_NUMBER_KEY = "C:";
+
+    private final CustomerSync customerSync;
+    private final ExecutorService[] partitions;
+    private final Semaphore inFlightPermits;
+    private final Map<String, KeyOwner> inFlightKeys = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition keysReleased = lock.newCondition();
+
+    public ParallelCustomerSync(CustomerSync customerSync, int workers) {
+        this(customerSync, workers, workers * 1024);
+    }
+
+    public ParallelCustomerSync(CustomerSync customerSync, int workers, int maxInFlight) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("workers must be positive but was " + workers);
+        }
+
+        this.customerSync = customerSync;
+        this.inFlightPermits = new Semaphore(maxInFlight);
+        this.partitions = new ExecutorService[workers];
+        for (int i = 0; i < workers; i++) {
+            String name = "customer-sync-" + i;
+            partitions[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public CompletableFuture<SyncResult> submit(ExternalCustomer externalCustomer) throws InterruptedException {
+        String[] keys = keysOf(externalCustomer);
+        inFlightPermits.acquire();
+
+        int partition;
+        try {
+            partition = acquire(keys);
+        } catch (InterruptedException e) {
+            inFlightPermits.release();
+            throw e;
+        }
+
+        CompletableFuture<SyncResult> result = new CompletableFuture<>();
+        partitions[partition].execute(() -> {
+            try {
+                result.complete(customerSync.trySync(externalCustomer));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            } finally {
+                release(keys);
+                inFlightPermits.release();
+            }
+        });
+
+        return result;
+    }
+
+    public List<SyncResult> syncAll(Iterable<ExternalCustomer> externalCustomers) throws InterruptedException, ExecutionException {
+        List<CompletableFuture<SyncResult>> futures = new ArrayList<>();
+        for (ExternalCustomer externalCustomer : externalCustomers) {
+            futures.add(submit(externalCustomer));
+        }
+
+        List<SyncResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<SyncResult> future : futures) {
+            results.add(future.get());
+        }
+
+        return results;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        for (ExecutorService partition : partitions) {
+            partition.shutdown();
+        }
+
+        for (ExecutorService partition : partitions) {
+            partition.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private int acquire(String[] keys) throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                int owner = ownerOf(keys);
+                if (owner != -2) {
+                    int partition = owner >= 0 ? owner : partitionOf(keys[0]);
+                    for (String key : keys) {
+                        inFlightKeys.computeIfAbsent(key, k -> new KeyOwner(partition)).count++;
+                    }
+                    return partition;
+                }
+                keysReleased.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int ownerOf(String[] keys) {
+        int owner = -1;
+        for (String key : keys) {
+            KeyOwner keyOwner = inFlightKeys.get(key);
+            if (keyOwner == null) {
+                continue;
+            }
+            if (owner >= 0 && owner != keyOwner.partition) {
+                return -2;
+            }
+            owner = keyOwner.partition;
+        }
+
+        return owner;
+    }
+
+    private void release(String[] keys) {
+        lock.lock();
+        try {
+            for (String key : keys) {
+                KeyOwner keyOwner = inFlightKeys.get(key);
+                if (--keyOwner.count == 0) {
+                    inFlightKeys.remove(key);
+                }
+            }
+            keysReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int partitionOf(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+
+        return Math.floorMod(hash, partitions.length);
+    }
+
+    private static String[] keysOf(ExternalCustomer externalCustomer) {
+        String externalIdKey = EXTERNAL_ID_KEY + externalCustomer.getExternalId();
+        if (externalCustomer.isCompany()) {
+            return new String[]{COMPANY_NUMBER_KEY + externalCustomer.getCompanyNumber(), externalIdKey};
+        }
+
+        return new String[]{externalIdKey};
+    }
+
+    private static class KeyOwner {
+        private final int partition;
+        private int count;
+
+        KeyOwner(int partition) {
+            this.partition = partition;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package codingdojo;
+
+import codingdojo.ingestion.ExternalCustomerReader;
+import codingdojo.models.Customer;
+import codingdojo.models.Discrepancy;
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.ReconciliationReport;
+import codingdojo.models.SyncResult;
+import codingdojo.repositories.ScannableCustomerRespository;
+import codingdojo.services.FingerprintStore;
+import codingdojo.types.CustomerField;
+import codingdojo.types.DiscrepancyType;
+import codingdojo.types.SyncOutcome;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class Reconciler {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final ExternalCustomer END = new ExternalCustomer();
+
+    private final CustomerSync customerSync;
+    private final ScannableCustomerRespository customerRespository;
+    private final List<String> rangeBoundaries;
+    private boolean applyFixes;
+    private int fixBatchSize = 1000;
+
+    public Reconciler(CustomerSync customerSync, ScannableCustomerRespository customerRespository) {
+        this(customerSync, customerRespository, Collections.emptyList());
+    }
+
+    public Reconciler(CustomerSync customerSync, ScannableCustomerRespository customerRespository, List<String> rangeBoundaries) {
+        for (int i = 1; i < rangeBoundaries.size(); i++) {
+            if (rangeBoundaries.get(i - 1).compareTo(rangeBoundaries.get(i)) >= 0) {
+                throw new IllegalArgumentException("rangeBoundaries must be strictly ascending but were " + rangeBoundaries);
+            }
+        }
+
+        this.customerSync = customerSync;
+        this.customerRespository = customerRespository;
+        this.rangeBoundaries = new ArrayList<>(rangeBoundaries);
+    }
+
+    public boolean isApplyFixes() {
+        return applyFixes;
+    }
+
+    public void setApplyFixes(boolean applyFixes) {
+        this.applyFixes = applyFixes;
+    }
+
+    public int getFixBatchSize() {
+        return fixBatchSize;
+    }
+
+    public void setFixBatchSize(int fixBatchSize) {
+        if (fixBatchSize <= 0) {
+            throw new IllegalArgumentException("fixBatchSize must be positive but was " + fixBatchSize);
+        }
+        this.fixBatchSize = fixBatchSize;
+    }
+
+    public ReconciliationReport reconcile(ExternalCustomerReader snapshot, Consumer<Discrepancy> discrepancies)
+            throws IOException, InterruptedException {
+        int ranges = rangeBoundaries.size() + 1;
+        ExecutorService executor = Executors.newFixedThreadPool(ranges, runnable -> {
+            Thread thread = new Thread(runnable, "customer-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<BlockingQueue<ExternalCustomer>> queues = new ArrayList<>(ranges);
+            List<Future<ReconciliationReport>> futures = new ArrayList<>(ranges);
+            for (int range = 0; range < ranges; range++) {
+                BlockingQueue<ExternalCustomer> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+                RangeReconciliation reconciliation = new RangeReconciliation(
+                        range == 0 ? null : rangeBoundaries.get(range - 1),
+                        range == ranges - 1 ? null : rangeBoundaries.get(range),
+                        queue, discrepancies);
+                queues.add(queue);
+                futures.add(executor.submit(reconciliation::run));
+            }
+
+            String previousExternalId = null;
+            ExternalCustomer externalCustomer;
+            while ((externalCustomer = snapshot.next()) != null) {
+                String externalId = externalCustomer.getExternalId();
+                if (externalId == null || (previousExternalId != null && previousExternalId.compareTo(externalId) >= 0)) {
+                    throw new IllegalArgumentException("Snapshot is not sorted by externalId at position " + snapshot.position()
+                            + ": " + previousExternalId + " then " + externalId);
+                }
+                previousExternalId = externalId;
+
+                int range = rangeOf(externalId);
+                enqueue(queues.get(range), externalCustomer, futures.get(range));
+            }
+
+            for (int range = 0; range < ranges; range++) {
+                enqueue(queues.get(range), END, futures.get(range));
+            }
+
+            ReconciliationReport report = ReconciliationReport.EMPTY;
+            for (Future<ReconciliationReport> future : futures) {
+                report = report.plus(resultOf(future));
+            }
+
+            return report;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int rangeOf(String externalId) {
+        int index = Collections.binarySearch(rangeBoundaries, externalId);
+
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static void enqueue(BlockingQueue<ExternalCustomer> queue, ExternalCustomer externalCustomer,
+                                Future<ReconciliationReport> worker) throws InterruptedException {
+        while (!queue.offer(externalCustomer, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (worker.isDone()) {
+                resultOf(worker);
+                throw new IllegalStateException("Range reconciliation finished before the snapshot was consumed");
+            }
+        }
+    }
+
+    private static ReconciliationReport resultOf(Future<ReconciliationReport> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private class RangeReconciliation {
+        private final String fromInclusive;
+        private final String toExclusive;
+        private final BlockingQueue<ExternalCustomer> queue;
+        private final Consumer<Discrepancy> discrepancies;
+        private final List<ExternalCustomer> fixes = new ArrayList<>();
+        private ExternalCustomer next;
+        private long matched;
+        private long missing;
+        private long extra;
+        private long divergent;
+        private long fixed;
+
+        RangeReconciliation(String fromInclusive, String toExclusive, BlockingQueue<ExternalCustomer> queue,
+                            Consumer<Discrepancy> discrepancies) {
+            this.fromInclusive = fromInclusive;
+            this.toExclusive = toExclusive;
+            this.queue = queue;
+            this.discrepancies = discrepancies;
+        }
+
+        ReconciliationReport run() {
+            next = take();
+            customerRespository.scanByExternalId(fromInclusive, toExclusive, this::compare);
+
+            while (next != END) {
+                reportMissing(next);
+                next = take();
+            }
+            applyFixes();
+
+            return new ReconciliationReport(matched, missing, extra, divergent, fixed);
+        }
+
+        private void compare(Customer customer) {
+            String externalId = customer.getExternalId();
+            while (next != END && next.getExternalId().compareTo(externalId) < 0) {
+                reportMissing(next);
+                next = take();
+            }
+
+            if (next == END || !next.getExternalId().equals(externalId)) {
+                extra++;
+                report(new Discrepancy(DiscrepancyType.EXTRA, externalId, Collections.emptySet()));
+                return;
+            }
+
+            Customer stored = customer.copy();
+            Set<CustomerField> divergentFields = EnumSet.noneOf(CustomerField.class);
+            customerSync.mapFields(next, stored, divergentFields);
+            if (!stored.mergeShoppingLists(next.getShoppingLists()).isEmpty()) {
+                divergentFields.add(CustomerField.SHOPPING_LISTS);
+            }
+
+            if (divergentFields.isEmpty()) {
+                matched++;
+            } else {
+                divergent++;
+                report(new Discrepancy(DiscrepancyType.DIVERGENT, externalId, divergentFields));
+                fix(next);
+            }
+            next = take();
+        }
+
+        private void reportMissing(ExternalCustomer externalCustomer) {
+            missing++;
+            report(new Discrepancy(DiscrepancyType.MISSING, externalCustomer.getExternalId(), Collections.emptySet()));
+            fix(externalCustomer);
+        }
+
+        private void report(Discrepancy discrepancy) {
+            synchronized (discrepancies) {
+                discrepancies.accept(discrepancy);
+            }
+        }
+
+        private void fix(ExternalCustomer externalCustomer) {
+            if (applyFixes) {
+                fixes.add(externalCustomer);
+            }
+        }
+
+        private void applyFixes() {
+            FingerprintStore fingerprintStore = customerSync.getFingerprintStore();
+            if (fingerprintStore != null) {
+                for (ExternalCustomer externalCustomer : fixes) {
+                    fingerprintStore.remove(externalCustomer.getExternalId());
+                }
+            }
+
+            for (int from = 0; from < fixes.size(); from += fixBatchSize) {
+                List<ExternalCustomer> batch = fixes.subList(from, Math.min(from + fixBatchSize, fixes.size()));
+                for (SyncResult result : customerSync.syncExternalCustomers(batch)) {
+                    if (result.getOutcome() == SyncOutcome.CREATED || result.getOutcome() == SyncOutcome.UPDATED) {
+                        fixed++;
+                    }
+                }
+            }
+            fixes.clear();
+        }
+
+        private ExternalCustomer take() {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reconciliation of range [" + fromInclusive + ", " + toExclusive + ") was interrupted", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package codingdojo;
+
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.SyncResult;
+import codingdojo.repositories.CustomerRespository;
+import codingdojo.repositories.ThrottledCustomerRespository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class SyncExecutor implements AutoCloseable {
+    private static final String EXTERNAL_ID_KEY = "E:";
+    private static final String COMPANY_NUMBER_KEY = "C:";
+
+    private final CustomerSync customerSync;
+    private final ExecutorService executor;
+    private final Map<String, CompletableFuture<SyncResult>> lastByKey = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private SyncExecutor(CustomerSync customerSync, ExecutorService executor) {
+        this.customerSync = customerSync;
+        this.executor = executor;
+    }
+
+    public static SyncExecutor virtualThreads(CustomerSync customerSync) {
+        return new SyncExecutor(customerSync, Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("customer-sync-", 0).factory()));
+    }
+
+    public static SyncExecutor virtualThreads(CustomerRespository customerRespository, int maxConcurrentRepositoryCalls) {
+        return virtualThreads(new CustomerSync(new ThrottledCustomerRespository(customerRespository, maxConcurrentRepositoryCalls)));
+    }
+
+    public static SyncExecutor platformThreads(CustomerSync customerSync, int threads) {
+        return new SyncExecutor(customerSync, Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("customer-sync-", 0).daemon(true).factory()));
+    }
+
+    public CustomerSync getCustomerSync() {
+        return customerSync;
+    }
+
+    public CompletableFuture<SyncResult> submit(ExternalCustomer externalCustomer) {
+        String[] keys = keysOf(externalCustomer);
+        CompletableFuture<SyncResult> result;
+        lock.lock();
+        try {
+            List<CompletableFuture<SyncResult>> predecessors = new ArrayList<>(keys.length);
+            for (String key : keys) {
+                CompletableFuture<SyncResult> predecessor = lastByKey.get(key);
+                if (predecessor != null) {
+                    predecessors.add(predecessor);
+                }
+            }
+
+            result = CompletableFuture.allOf(predecessors.toArray(new CompletableFuture<?>[0]))
+                    .handle((ignored, failure) -> externalCustomer)
+                    .thenApplyAsync(customerSync::trySync, executor);
+            for (String key : keys) {
+                lastByKey.put(key, result);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        CompletableFuture<SyncResult> submitted = result;
+        submitted.whenComplete((ignored, failure) -> release(keys, submitted));
+        return submitted;
+    }
+
+    public List<SyncResult> syncAll(Iterable<ExternalCustomer> externalCustomers) throws InterruptedException, ExecutionException {
+        List<CompletableFuture<SyncResult>> futures = new ArrayList<>();
+        for (ExternalCustomer externalCustomer : externalCustomers) {
+            futures.add(submit(externalCustomer));
+        }
+
+        List<SyncResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<SyncResult> future : futures) {
+            results.add(future.get());
+        }
+
+        return results;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    private void release(String[] keys, CompletableFuture<SyncResult> result) {
+        lock.lock();
+        try {
+            for (String key : keys) {
+                lastByKey.remove(key, result);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String[] keysOf(ExternalCustomer externalCustomer) {
+        String externalIdKey = EXTERNAL_ID_KEY + externalCustomer.getExternalId();
+        if (externalCustomer.isCompany()) {
+            return new String[]{COMPANY_NUMBER_KEY + externalCustomer.getCompanyNumber(), externalIdKey};
+        }
+
+        return new String[]{externalIdKey};
+    }
+}
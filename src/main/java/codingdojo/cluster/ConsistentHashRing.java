@@ -0,0 +1,87 @@
+package codingdojo.cluster;
+
+import codingdojo.models.Fingerprint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public final class ConsistentHashRing {
+    private final int virtualNodes;
+    private final Set<String> workerIds;
+    private final long[] points;
+    private final String[] owners;
+
+    public ConsistentHashRing(Collection<String> workerIds, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive but was " + virtualNodes);
+        }
+
+        this.virtualNodes = virtualNodes;
+        this.workerIds = Collections.unmodifiableSet(new LinkedHashSet<>(workerIds));
+
+        long[][] nodes = new long[this.workerIds.size() * virtualNodes][];
+        List<String> ids = new ArrayList<>(this.workerIds);
+        int n = 0;
+        for (int worker = 0; worker < ids.size(); worker++) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                nodes[n++] = new long[]{hash(Fingerprint.add(Fingerprint.start(), ids.get(worker)), replica), worker};
+            }
+        }
+        Arrays.sort(nodes, (left, right) -> Long.compare(left[0], right[0]));
+
+        this.points = new long[nodes.length];
+        this.owners = new String[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            points[i] = nodes[i][0];
+            owners[i] = ids.get((int) nodes[i][1]);
+        }
+    }
+
+    public String ownerOf(String key) {
+        if (points.length == 0) {
+            throw new IllegalStateException("No workers on the ring");
+        }
+
+        int index = Arrays.binarySearch(points, hash(Fingerprint.start(), key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public ConsistentHashRing withWorker(String workerId) {
+        Set<String> ids = new LinkedHashSet<>(workerIds);
+        ids.add(workerId);
+
+        return new ConsistentHashRing(ids, virtualNodes);
+    }
+
+    public ConsistentHashRing withoutWorker(String workerId) {
+        Set<String> ids = new LinkedHashSet<>(workerIds);
+        ids.remove(workerId);
+
+        return new ConsistentHashRing(ids, virtualNodes);
+    }
+
+    public Set<String> getWorkerIds() {
+        return workerIds;
+    }
+
+    public boolean isEmpty() {
+        return workerIds.isEmpty();
+    }
+
+    private static long hash(long seed, String key) {
+        return Fingerprint.finish(Fingerprint.add(seed, key));
+    }
+
+    private static long hash(long seed, int replica) {
+        return Fingerprint.finish(Fingerprint.add(seed, replica));
+    }
+}
@@ -0,0 +1,38 @@
+package codingdojo.cluster;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class LocalSyncTransport implements SyncTransport {
+    private final Map<String, Consumer<SyncRequest>> receivers = new ConcurrentHashMap<>();
+    private final AtomicLong sent = new AtomicLong();
+
+    @Override
+    public void bind(String workerId, Consumer<SyncRequest> receiver) {
+        if (receivers.putIfAbsent(workerId, receiver) != null) {
+            throw new IllegalStateException("Worker " + workerId + " is already bound");
+        }
+    }
+
+    @Override
+    public void unbind(String workerId) {
+        receivers.remove(workerId);
+    }
+
+    @Override
+    public void send(String workerId, SyncRequest request) {
+        Consumer<SyncRequest> receiver = receivers.get(workerId);
+        if (receiver == null) {
+            throw new IllegalStateException("No worker bound as " + workerId);
+        }
+
+        sent.incrementAndGet();
+        receiver.accept(request);
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+}
@@ -0,0 +1,199 @@
+package codingdojo.cluster;
+
+import codingdojo.CustomerSync;
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.SyncResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class PartitionedCustomerSync implements AutoCloseable {
+    private static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final SyncTransport transport;
+    private final int virtualNodes;
+    private final Map<String, SyncWorker> workers = new LinkedHashMap<>();
+    private final ReentrantReadWriteLock routing = new ReentrantReadWriteLock();
+    private final Map<String, CompletableFuture<SyncResult>> lastByKey = new HashMap<>();
+    private final ReentrantLock ordering = new ReentrantLock();
+    private volatile ConsistentHashRing ring;
+    private long handedOff;
+
+    public PartitionedCustomerSync(SyncTransport transport) {
+        this(transport, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public PartitionedCustomerSync(SyncTransport transport, int virtualNodes) {
+        this.transport = transport;
+        this.virtualNodes = virtualNodes;
+        this.ring = new ConsistentHashRing(Collections.emptyList(), virtualNodes);
+    }
+
+    public void addWorker(String workerId, CustomerSync customerSync) {
+        routing.writeLock().lock();
+        try {
+            if (workers.containsKey(workerId)) {
+                throw new IllegalArgumentException("Worker " + workerId + " already joined");
+            }
+
+            SyncWorker worker = new SyncWorker(workerId, customerSync);
+            transport.bind(workerId, worker::receive);
+            workers.put(workerId, worker);
+            worker.start();
+
+            rebalance(ring.withWorker(workerId));
+        } finally {
+            routing.writeLock().unlock();
+        }
+    }
+
+    public void removeWorker(String workerId) throws InterruptedException {
+        SyncWorker worker;
+        routing.writeLock().lock();
+        try {
+            worker = workers.get(workerId);
+            if (worker == null) {
+                throw new IllegalArgumentException("Unknown worker " + workerId);
+            }
+            if (workers.size() == 1) {
+                throw new IllegalStateException("Cannot remove the last worker " + workerId);
+            }
+
+            rebalance(ring.withoutWorker(workerId));
+            workers.remove(workerId);
+            transport.unbind(workerId);
+            worker.stop();
+        } finally {
+            routing.writeLock().unlock();
+        }
+
+        worker.awaitTermination();
+    }
+
+    public CompletableFuture<SyncResult> submit(ExternalCustomer externalCustomer) {
+        SyncRequest request = new SyncRequest(externalCustomer);
+        String[] keys = request.getOrderingKeys();
+
+        routing.readLock().lock();
+        try {
+            ordering.lock();
+            try {
+                for (String key : keys) {
+                    CompletableFuture<SyncResult> previous = lastByKey.put(key, request.getResult());
+                    if (previous != null) {
+                        request.runAfter(previous);
+                    }
+                }
+            } finally {
+                ordering.unlock();
+            }
+            request.getResult().whenComplete((result, failure) -> release(keys, request.getResult()));
+
+            transport.send(ring.ownerOf(request.getPartitionKey()), request);
+        } finally {
+            routing.readLock().unlock();
+        }
+
+        return request.getResult();
+    }
+
+    public List<SyncResult> syncAll(Iterable<ExternalCustomer> externalCustomers) throws InterruptedException, ExecutionException {
+        List<CompletableFuture<SyncResult>> futures = new ArrayList<>();
+        for (ExternalCustomer externalCustomer : externalCustomers) {
+            futures.add(submit(externalCustomer));
+        }
+
+        List<SyncResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<SyncResult> future : futures) {
+            results.add(future.get());
+        }
+
+        return results;
+    }
+
+    public String ownerOf(ExternalCustomer externalCustomer) {
+        return ring.ownerOf(SyncRequest.partitionKeyOf(externalCustomer));
+    }
+
+    public List<String> getWorkerIds() {
+        routing.readLock().lock();
+        try {
+            return new ArrayList<>(workers.keySet());
+        } finally {
+            routing.readLock().unlock();
+        }
+    }
+
+    public long getProcessedCount(String workerId) {
+        routing.readLock().lock();
+        try {
+            SyncWorker worker = workers.get(workerId);
+            return worker == null ? 0 : worker.getProcessedCount();
+        } finally {
+            routing.readLock().unlock();
+        }
+    }
+
+    public long getHandedOffCount() {
+        routing.readLock().lock();
+        try {
+            return handedOff;
+        } finally {
+            routing.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        List<SyncWorker> stopped;
+        routing.writeLock().lock();
+        try {
+            stopped = new ArrayList<>(workers.values());
+            for (SyncWorker worker : stopped) {
+                transport.unbind(worker.getId());
+                worker.stop();
+            }
+            workers.clear();
+            ring = new ConsistentHashRing(Collections.emptyList(), virtualNodes);
+        } finally {
+            routing.writeLock().unlock();
+        }
+
+        for (SyncWorker worker : stopped) {
+            worker.awaitTermination();
+        }
+    }
+
+    private void release(String[] keys, CompletableFuture<SyncResult> result) {
+        ordering.lock();
+        try {
+            for (String key : keys) {
+                lastByKey.remove(key, result);
+            }
+        } finally {
+            ordering.unlock();
+        }
+    }
+
+    private void rebalance(ConsistentHashRing next) {
+        List<SyncRequest> moved = new ArrayList<>();
+        for (SyncWorker worker : workers.values()) {
+            String workerId = worker.getId();
+            moved.addAll(worker.handOff(request -> !workerId.equals(next.ownerOf(request.getPartitionKey()))));
+        }
+
+        ring = next;
+        for (SyncRequest request : moved) {
+            transport.send(next.ownerOf(request.getPartitionKey()), request);
+        }
+        handedOff += moved.size();
+    }
+}
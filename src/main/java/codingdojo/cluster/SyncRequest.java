@@ -0,0 +1,57 @@
+package codingdojo.cluster;
+
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.SyncResult;
+
+import java.util.concurrent.CompletableFuture;
+
+public final class SyncRequest {
+    private static final String EXTERNAL_ID_KEY = "E:";
+    private static final String COMPANY_NUMBER_KEY = "C:";
+
+    private final ExternalCustomer externalCustomer;
+    private final String partitionKey;
+    private final CompletableFuture<SyncResult> result = new CompletableFuture<>();
+    private CompletableFuture<?> predecessor = CompletableFuture.completedFuture(null);
+
+    public SyncRequest(ExternalCustomer externalCustomer) {
+        this.externalCustomer = externalCustomer;
+        this.partitionKey = partitionKeyOf(externalCustomer);
+    }
+
+    public ExternalCustomer getExternalCustomer() {
+        return externalCustomer;
+    }
+
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public CompletableFuture<SyncResult> getResult() {
+        return result;
+    }
+
+    public synchronized CompletableFuture<?> getPredecessor() {
+        return predecessor;
+    }
+
+    synchronized void runAfter(CompletableFuture<?> previousOwner) {
+        predecessor = CompletableFuture.allOf(predecessor, previousOwner);
+    }
+
+    String[] getOrderingKeys() {
+        if (externalCustomer.isCompany()) {
+            return new String[]{partitionKey, COMPANY_NUMBER_KEY + externalCustomer.getCompanyNumber()};
+        }
+
+        return new String[]{partitionKey};
+    }
+
+    synchronized boolean isReady() {
+        return predecessor.isDone();
+    }
+
+    static String partitionKeyOf(ExternalCustomer externalCustomer) {
+        return EXTERNAL_ID_KEY + externalCustomer.getExternalId();
+    }
+}
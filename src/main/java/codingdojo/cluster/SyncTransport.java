@@ -0,0 +1,12 @@
+package codingdojo.cluster;
+
+import java.util.function.Consumer;
+
+public interface SyncTransport {
+
+    void bind(String workerId, Consumer<SyncRequest> receiver);
+
+    void unbind(String workerId);
+
+    void send(String workerId, SyncRequest request);
+}
@@ -0,0 +1,152 @@
+package codingdojo.cluster;
+
+import codingdojo.CustomerSync;
+import codingdojo.models.SyncResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+class SyncWorker {
+    private final String id;
+    private final CustomerSync customerSync;
+    private final ArrayDeque<SyncRequest> queue = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition requestsQueued = lock.newCondition();
+    private final Thread thread;
+    private CompletableFuture<?> running = CompletableFuture.completedFuture(null);
+    private boolean stopped;
+    private long processed;
+
+    SyncWorker(String id, CustomerSync customerSync) {
+        this.id = id;
+        this.customerSync = customerSync;
+        this.thread = new Thread(this::run, "customer-sync-" + id);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    String getId() {
+        return id;
+    }
+
+    void receive(SyncRequest request) {
+        lock.lock();
+        try {
+            if (stopped) {
+                throw new IllegalStateException("Worker " + id + " is stopped");
+            }
+            queue.add(request);
+            requestsQueued.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        if (!request.isReady()) {
+            request.getPredecessor().whenComplete((result, failure) -> wakeUp());
+        }
+    }
+
+    List<SyncRequest> handOff(Predicate<SyncRequest> moved) {
+        lock.lock();
+        try {
+            List<SyncRequest> handedOff = new ArrayList<>();
+            Iterator<SyncRequest> requests = queue.iterator();
+            while (requests.hasNext()) {
+                SyncRequest request = requests.next();
+                if (moved.test(request)) {
+                    requests.remove();
+                    request.runAfter(running);
+                    handedOff.add(request);
+                }
+            }
+
+            return handedOff;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void wakeUp() {
+        lock.lock();
+        try {
+            requestsQueued.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void stop() {
+        lock.lock();
+        try {
+            stopped = true;
+            requestsQueued.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void awaitTermination() throws InterruptedException {
+        thread.join();
+    }
+
+    long getProcessedCount() {
+        lock.lock();
+        try {
+            return processed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            SyncRequest request;
+            lock.lock();
+            try {
+                while ((request = pollReady()) == null && !(stopped && queue.isEmpty())) {
+                    requestsQueued.awaitUninterruptibly();
+                }
+                if (request == null) {
+                    return;
+                }
+                running = request.getResult();
+                processed++;
+            } finally {
+                lock.unlock();
+            }
+
+            sync(request);
+        }
+    }
+
+    private SyncRequest pollReady() {
+        Iterator<SyncRequest> requests = queue.iterator();
+        while (requests.hasNext()) {
+            SyncRequest request = requests.next();
+            if (request.isReady()) {
+                requests.remove();
+                return request;
+            }
+        }
+
+        return null;
+    }
+
+    private void sync(SyncRequest request) {
+        try {
+            request.getPredecessor().exceptionally(failure -> null).join();
+            request.getResult().complete(customerSync.trySync(request.getExternalCustomer()));
+        } catch (RuntimeException e) {
+            request.getResult().completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package codingdojo.exceptions;
+
+public class ConcurrentUpdateException extends RuntimeException {
+
+    public ConcurrentUpdateException(String errorMsg) {
+        super(errorMsg);
+    }
+
+}
@@ -1,9 +1,35 @@
 package codingdojo.exceptions;
 
+import codingdojo.models.SyncConflict;
+import codingdojo.types.ConflictType;
+
 public class ConflictException extends RuntimeException {
+    private final SyncConflict conflict;
 
     public ConflictException(String errorMsg) {
-        super(errorMsg);
+        this(errorMsg, null);
+    }
+
+    public ConflictException(String errorMsg, ConflictType conflictType) {
+        this(SyncConflict.of(conflictType, errorMsg));
+    }
+
+    public ConflictException(SyncConflict conflict) {
+        super(null, null, false, false);
+        this.conflict = conflict;
+    }
+
+    @Override
+    public String getMessage() {
+        return conflict.getMessage();
+    }
+
+    public ConflictType getConflictType() {
+        return conflict.getConflictType();
+    }
+
+    public SyncConflict getConflict() {
+        return conflict;
     }
 
 }
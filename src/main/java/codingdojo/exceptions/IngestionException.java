@@ -0,0 +1,13 @@
+package codingdojo.exceptions;
+
+public class IngestionException extends RuntimeException {
+
+    public IngestionException(String errorMsg) {
+        super(errorMsg);
+    }
+
+    public IngestionException(String errorMsg, Throwable cause) {
+        super(errorMsg, cause);
+    }
+
+}
@@ -0,0 +1,184 @@
+package codingdojo.ingestion;
+
+import codingdojo.exceptions.IngestionException;
+import codingdojo.models.Address;
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.ShoppingList;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CsvExternalCustomerReader implements ExternalCustomerReader {
+    public static final String SHOPPING_LIST_SEPARATOR = "|";
+    public static final String PRODUCT_SEPARATOR = ";";
+
+    private final LineReader lineReader;
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    public CsvExternalCustomerReader(Path file) throws IOException {
+        this(file, 0);
+    }
+
+    public CsvExternalCustomerReader(Path file, long offset) throws IOException {
+        try (LineReader headerReader = new LineReader(file, 0)) {
+            String header = headerReader.readLine();
+            if (header == null) {
+                throw new IngestionException("Missing CSV header in " + file);
+            }
+
+            List<String> names = split(header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim(), i);
+            }
+            if (!columns.containsKey("externalId")) {
+                throw new IngestionException("CSV header in " + file + " has no externalId column");
+            }
+
+            offset = Math.max(offset, headerReader.position());
+        }
+
+        this.lineReader = new LineReader(file, offset);
+    }
+
+    @Override
+    public ExternalCustomer next() throws IOException {
+        while (true) {
+            long lineStart = lineReader.position();
+            String line = lineReader.readLine();
+            if (line == null) {
+                return null;
+            }
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            StringBuilder record = null;
+            while (!isQuoteBalanced(record == null ? line : record)) {
+                String continuation = lineReader.readLine();
+                if (continuation == null) {
+                    throw new IngestionException("Invalid record at offset " + lineStart + ": Unterminated quoted field");
+                }
+                if (record == null) {
+                    record = new StringBuilder(line);
+                }
+                record.append('\n').append(continuation);
+            }
+            if (record != null) {
+                line = record.toString();
+            }
+
+            try {
+                return toExternalCustomer(split(line));
+            } catch (IngestionException | NumberFormatException e) {
+                throw new IngestionException("Invalid record at offset " + lineStart + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public long position() {
+        return lineReader.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lineReader.close();
+    }
+
+    private ExternalCustomer toExternalCustomer(List<String> fields) {
+        ExternalCustomer externalCustomer = new ExternalCustomer();
+        externalCustomer.setExternalId(field(fields, "externalId"));
+        externalCustomer.setName(field(fields, "name"));
+        externalCustomer.setCompanyNumber(field(fields, "companyNumber"));
+        externalCustomer.setPreferredStore(field(fields, "preferredStore"));
+
+        String bonusPointsBalance = field(fields, "bonusPointsBalance");
+        if (bonusPointsBalance != null) {
+            externalCustomer.setBonusPointsBalance(Integer.valueOf(bonusPointsBalance));
+        }
+
+        String street = field(fields, "street");
+        String city = field(fields, "city");
+        String postalCode = field(fields, "postalCode");
+        if (street != null || city != null || postalCode != null) {
+            externalCustomer.setAddress(new Address(street, city, postalCode));
+        }
+
+        externalCustomer.setShoppingLists(toShoppingLists(field(fields, "shoppingLists")));
+
+        return externalCustomer;
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<ShoppingList> toShoppingLists(String value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+
+        List<ShoppingList> shoppingLists = new ArrayList<>();
+        for (String shoppingList : value.split("\\" + SHOPPING_LIST_SEPARATOR, -1)) {
+            shoppingLists.add(new ShoppingList(shoppingList.isEmpty() ? new String[0] : shoppingList.split(PRODUCT_SEPARATOR, -1)));
+        }
+
+        return shoppingLists;
+    }
+
+    private static boolean isQuoteBalanced(CharSequence record) {
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                quoted = !quoted;
+            }
+        }
+
+        return !quoted;
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char next = line.charAt(i);
+            if (quoted) {
+                if (next == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (next == '"') {
+                    quoted = false;
+                } else {
+                    field.append(next);
+                }
+            } else if (next == '"') {
+                quoted = true;
+            } else if (next == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(next);
+            }
+        }
+
+        if (quoted) {
+            throw new IngestionException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+
+        return fields;
+    }
+}
@@ -0,0 +1,15 @@
+package codingdojo.ingestion;
+
+import codingdojo.models.ExternalCustomer;
+
+import java.io.IOException;
+
+public interface ExternalCustomerReader extends AutoCloseable {
+
+    ExternalCustomer next() throws IOException;
+
+    long position();
+
+    @Override
+    void close() throws IOException;
+}
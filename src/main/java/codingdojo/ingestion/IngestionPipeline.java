@@ -0,0 +1,150 @@
+package codingdojo.ingestion;
+
+import codingdojo.CustomerSync;
+import codingdojo.exceptions.IngestionException;
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.SyncResult;
+import codingdojo.types.SyncOutcome;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public class IngestionPipeline {
+    private final CustomerSync customerSync;
+    private final int batchSize;
+    private final int queueCapacity;
+    private boolean bulkLoad;
+
+    public IngestionPipeline(CustomerSync customerSync) {
+        this(customerSync, 500, 8);
+    }
+
+    public IngestionPipeline(CustomerSync customerSync, int batchSize, int queueCapacity) {
+        if (batchSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("batchSize and queueCapacity must be positive");
+        }
+
+        this.customerSync = customerSync;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public boolean isBulkLoad() {
+        return bulkLoad;
+    }
+
+    public void setBulkLoad(boolean bulkLoad) {
+        this.bulkLoad = bulkLoad;
+    }
+
+    public Map<SyncOutcome, Long> run(ExternalCustomerReader reader) throws InterruptedException {
+        return run(reader, null);
+    }
+
+    public Map<SyncOutcome, Long> run(ExternalCustomerReader reader, Path checkpointFile) throws InterruptedException {
+        BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Thread producer = new Thread(() -> produce(reader, queue), "customer-ingestion-reader");
+        producer.setDaemon(true);
+        producer.start();
+
+        Map<SyncOutcome, Long> outcomes = new EnumMap<>(SyncOutcome.class);
+        try {
+            while (true) {
+                Chunk chunk = queue.take();
+                if (chunk.failure != null) {
+                    throw new IngestionException("Could not read external customers", chunk.failure);
+                }
+
+                if (!chunk.externalCustomers.isEmpty()) {
+                    List<SyncResult> results = bulkLoad
+                            ? customerSync.bulkLoad(chunk.externalCustomers)
+                            : customerSync.syncExternalCustomers(chunk.externalCustomers);
+                    for (SyncResult result : results) {
+                        outcomes.merge(result.getOutcome(), 1L, Long::sum);
+                    }
+                    if (checkpointFile != null) {
+                        writeCheckpoint(checkpointFile, chunk.endOffset);
+                    }
+                }
+
+                if (chunk.last) {
+                    return outcomes;
+                }
+            }
+        } finally {
+            producer.interrupt();
+            producer.join();
+        }
+    }
+
+    public static long readCheckpoint(Path checkpointFile) {
+        try {
+            if (!Files.exists(checkpointFile)) {
+                return 0;
+            }
+            return Long.parseLong(new String(Files.readAllBytes(checkpointFile), StandardCharsets.UTF_8).trim());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read checkpoint " + checkpointFile, e);
+        }
+    }
+
+    public static void writeCheckpoint(Path checkpointFile, long offset) {
+        try {
+            Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+            Files.write(tmp, Long.toString(offset).getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write checkpoint " + checkpointFile, e);
+        }
+    }
+
+    private void produce(ExternalCustomerReader reader, BlockingQueue<Chunk> queue) {
+        try {
+            List<ExternalCustomer> externalCustomers = new ArrayList<>(batchSize);
+            ExternalCustomer externalCustomer;
+
+            while ((externalCustomer = reader.next()) != null) {
+                externalCustomers.add(externalCustomer);
+                if (externalCustomers.size() == batchSize) {
+                    queue.put(new Chunk(externalCustomers, reader.position(), false, null));
+                    externalCustomers = new ArrayList<>(batchSize);
+                }
+            }
+
+            queue.put(new Chunk(externalCustomers, reader.position(), true, null));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            try {
+                queue.put(new Chunk(Collections.emptyList(), -1, true, e));
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class Chunk {
+        private final List<ExternalCustomer> externalCustomers;
+        private final long endOffset;
+        private final boolean last;
+        private final Exception failure;
+
+        Chunk(List<ExternalCustomer> externalCustomers, long endOffset, boolean last, Exception failure) {
+            this.externalCustomers = externalCustomers;
+            this.endOffset = endOffset;
+            this.last = last;
+            this.failure = failure;
+        }
+    }
+}
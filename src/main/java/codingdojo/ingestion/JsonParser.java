@@ -0,0 +1,222 @@
+package codingdojo.ingestion;
+
+import codingdojo.exceptions.IngestionException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class JsonParser {
+    private final String json;
+    private int index;
+
+    private JsonParser(String json) {
+        this.json = json;
+    }
+
+    static Object parse(String json) {
+        JsonParser parser = new JsonParser(json);
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.index != json.length()) {
+            throw parser.error("Unexpected trailing characters");
+        }
+
+        return value;
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (index >= json.length()) {
+            throw error("Unexpected end of input");
+        }
+
+        char next = json.charAt(index);
+        switch (next) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                return readLiteral("true", Boolean.TRUE);
+            case 'f':
+                return readLiteral("false", Boolean.FALSE);
+            case 'n':
+                return readLiteral("null", null);
+            default:
+                return readNumber();
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new HashMap<>();
+        index++;
+        skipWhitespace();
+        if (peek() == '}') {
+            index++;
+            return object;
+        }
+
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Expected object key");
+            }
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            object.put(key, readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                index++;
+            } else {
+                expect('}');
+                return object;
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        index++;
+        skipWhitespace();
+        if (peek() == ']') {
+            index++;
+            return array;
+        }
+
+        while (true) {
+            array.add(readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                index++;
+            } else {
+                expect(']');
+                return array;
+            }
+        }
+    }
+
+    private String readString() {
+        index++;
+        StringBuilder value = null;
+        int start = index;
+
+        while (index < json.length()) {
+            char next = json.charAt(index);
+            if (next == '"') {
+                String string = value == null ? json.substring(start, index) : value.append(json, start, index).toString();
+                index++;
+                return string;
+            }
+
+            if (next == '\\') {
+                if (value == null) {
+                    value = new StringBuilder();
+                }
+                value.append(json, start, index);
+                index++;
+                value.append(readEscape());
+                start = index;
+            } else {
+                index++;
+            }
+        }
+
+        throw error("Unterminated string");
+    }
+
+    private char readEscape() {
+        if (index >= json.length()) {
+            throw error("Unterminated escape");
+        }
+
+        char escaped = json.charAt(index++);
+        switch (escaped) {
+            case '"':
+            case '\\':
+            case '/':
+                return escaped;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                if (index + 4 > json.length()) {
+                    throw error("Invalid unicode escape");
+                }
+                try {
+                    char unicode = (char) Integer.parseInt(json.substring(index, index + 4), 16);
+                    index += 4;
+                    return unicode;
+                } catch (NumberFormatException e) {
+                    throw error("Invalid unicode escape");
+                }
+            default:
+                throw error("Invalid escape \\" + escaped);
+        }
+    }
+
+    private Object readLiteral(String literal, Object value) {
+        if (!json.startsWith(literal, index)) {
+            throw error("Expected " + literal);
+        }
+        index += literal.length();
+
+        return value;
+    }
+
+    private Number readNumber() {
+        int start = index;
+        while (index < json.length() && "+-0123456789.eE".indexOf(json.charAt(index)) >= 0) {
+            index++;
+        }
+        if (start == index) {
+            throw error("Unexpected character '" + json.charAt(index) + "'");
+        }
+
+        String number = json.substring(start, index);
+        try {
+            if (number.indexOf('.') >= 0 || number.indexOf('e') >= 0 || number.indexOf('E') >= 0) {
+                return Double.parseDouble(number);
+            }
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number " + number);
+        }
+    }
+
+    private void skipWhitespace() {
+        while (index < json.length() && Character.isWhitespace(json.charAt(index))) {
+            index++;
+        }
+    }
+
+    private char peek() {
+        if (index >= json.length()) {
+            throw error("Unexpected end of input");
+        }
+
+        return json.charAt(index);
+    }
+
+    private void expect(char expected) {
+        if (peek() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+        index++;
+    }
+
+    private IngestionException error(String message) {
+        return new IngestionException(message + " at column " + (index + 1));
+    }
+}
@@ -0,0 +1,72 @@
+package codingdojo.ingestion;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+class LineReader implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private byte[] line = new byte[256];
+    private long position;
+
+    LineReader(Path file, long offset) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.channel.position(offset);
+        this.position = offset;
+        this.buffer.flip();
+    }
+
+    String readLine() throws IOException {
+        int length = 0;
+        boolean read = false;
+
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int count = channel.read(buffer);
+                buffer.flip();
+                if (count < 0) {
+                    return read ? decode(length) : null;
+                }
+                continue;
+            }
+
+            byte next = buffer.get();
+            position++;
+            read = true;
+
+            if (next == '\n') {
+                return decode(length);
+            }
+
+            if (length == line.length) {
+                line = Arrays.copyOf(line, length * 2);
+            }
+            line[length++] = next;
+        }
+    }
+
+    long position() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private String decode(int length) {
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+}
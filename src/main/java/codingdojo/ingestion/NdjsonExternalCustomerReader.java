@@ -0,0 +1,115 @@
+package codingdojo.ingestion;
+
+import codingdojo.exceptions.IngestionException;
+import codingdojo.models.Address;
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.ShoppingList;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class NdjsonExternalCustomerReader implements ExternalCustomerReader {
+    private final LineReader lineReader;
+
+    public NdjsonExternalCustomerReader(Path file) throws IOException {
+        this(file, 0);
+    }
+
+    public NdjsonExternalCustomerReader(Path file, long offset) throws IOException {
+        this.lineReader = new LineReader(file, offset);
+    }
+
+    @Override
+    public ExternalCustomer next() throws IOException {
+        while (true) {
+            long lineStart = lineReader.position();
+            String line = lineReader.readLine();
+            if (line == null) {
+                return null;
+            }
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            try {
+                Object record = JsonParser.parse(line);
+                if (!(record instanceof Map)) {
+                    throw new IngestionException("Expected a JSON object");
+                }
+                return toExternalCustomer((Map<?, ?>) record);
+            } catch (RuntimeException e) {
+                throw new IngestionException("Invalid record at offset " + lineStart + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public long position() {
+        return lineReader.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lineReader.close();
+    }
+
+    private static ExternalCustomer toExternalCustomer(Map<?, ?> record) {
+        ExternalCustomer externalCustomer = new ExternalCustomer();
+        externalCustomer.setExternalId((String) record.get("externalId"));
+        externalCustomer.setName((String) record.get("name"));
+        externalCustomer.setCompanyNumber((String) record.get("companyNumber"));
+        externalCustomer.setPreferredStore((String) record.get("preferredStore"));
+
+        Number bonusPointsBalance = (Number) record.get("bonusPointsBalance");
+        if (bonusPointsBalance != null) {
+            externalCustomer.setBonusPointsBalance(toInt("bonusPointsBalance", bonusPointsBalance));
+        }
+
+        Map<?, ?> address = (Map<?, ?>) record.get("address");
+        if (address != null) {
+            externalCustomer.setAddress(new Address((String) address.get("street"), (String) address.get("city"), (String) address.get("postalCode")));
+        }
+
+        externalCustomer.setShoppingLists(toShoppingLists((List<?>) record.get("shoppingLists")));
+
+        return externalCustomer;
+    }
+
+    private static List<ShoppingList> toShoppingLists(List<?> shoppingLists) {
+        if (shoppingLists == null || shoppingLists.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<ShoppingList> result = new ArrayList<>(shoppingLists.size());
+        for (Object shoppingList : shoppingLists) {
+            List<?> products = (List<?>) ((Map<?, ?>) shoppingList).get("products");
+            result.add(new ShoppingList(products == null ? new String[0] : toStrings("products", products)));
+        }
+
+        return result;
+    }
+
+    private static int toInt(String field, Number value) {
+        if (!(value instanceof Long) || value.longValue() < Integer.MIN_VALUE || value.longValue() > Integer.MAX_VALUE) {
+            throw new IngestionException("Expected " + field + " to be an int but was " + value);
+        }
+
+        return value.intValue();
+    }
+
+    private static String[] toStrings(String field, List<?> values) {
+        String[] strings = new String[values.size()];
+        for (int i = 0; i < strings.length; i++) {
+            if (!(values.get(i) instanceof String)) {
+                throw new IngestionException("Expected " + field + " to hold strings but found " + values.get(i));
+            }
+            strings[i] = (String) values.get(i);
+        }
+
+        return strings;
+    }
+}
@@ -37,6 +37,13 @@ public class Address {
         this.street = street;
     }
 
+    long fingerprint(long hash) {
+        hash = Fingerprint.add(hash, street);
+        hash = Fingerprint.add(hash, city);
+
+        return Fingerprint.add(hash, postalCode);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
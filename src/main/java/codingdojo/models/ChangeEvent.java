@@ -0,0 +1,79 @@
+package codingdojo.models;
+
+import codingdojo.types.ChangeType;
+import codingdojo.types.CustomerField;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+public class ChangeEvent {
+    private final ChangeType changeType;
+    private final String internalId;
+    private final String externalId;
+    private final Set<CustomerField> changedFields;
+    private final String previousMasterExternalId;
+    private final String masterExternalId;
+
+    public ChangeEvent(ChangeType changeType, String internalId, String externalId, Set<CustomerField> changedFields,
+                       String previousMasterExternalId, String masterExternalId) {
+        this.changeType = changeType;
+        this.internalId = internalId;
+        this.externalId = externalId;
+        this.changedFields = changedFields.isEmpty()
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(changedFields));
+        this.previousMasterExternalId = previousMasterExternalId;
+        this.masterExternalId = masterExternalId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public String getInternalId() {
+        return internalId;
+    }
+
+    public String getExternalId() {
+        return externalId;
+    }
+
+    public Set<CustomerField> getChangedFields() {
+        return changedFields;
+    }
+
+    public String getPreviousMasterExternalId() {
+        return previousMasterExternalId;
+    }
+
+    public String getMasterExternalId() {
+        return masterExternalId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ChangeEvent that = (ChangeEvent) o;
+
+        return changeType == that.changeType &&
+                Objects.equals(internalId, that.internalId) &&
+                Objects.equals(externalId, that.externalId) &&
+                Objects.equals(changedFields, that.changedFields) &&
+                Objects.equals(previousMasterExternalId, that.previousMasterExternalId) &&
+                Objects.equals(masterExternalId, that.masterExternalId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(changeType, internalId, externalId, changedFields, previousMasterExternalId, masterExternalId);
+    }
+}
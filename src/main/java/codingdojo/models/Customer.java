@@ -3,16 +3,24 @@ package codingdojo.models;
 import codingdojo.types.CustomerType;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 public class Customer {
+    private static final int LINEAR_MERGE_LIMIT = 64;
+
     private String externalId;
     private String masterExternalId;
     private Address address;
     private String preferredStore;
     private List<ShoppingList> shoppingLists = new ArrayList<>();
+    private boolean ownsShoppingLists = true;
     private String internalId;
+    private long version;
     private String name;
     private CustomerType customerType;
     private String companyNumber;
@@ -65,6 +73,7 @@ public class Customer {
 
     public void setShoppingLists(List<ShoppingList> shoppingLists) {
         this.shoppingLists = shoppingLists;
+        this.ownsShoppingLists = false;
     }
 
     public String getName() {
@@ -91,6 +100,14 @@ public class Customer {
         this.internalId = internalId;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Integer getBonusPointsBalance() {
         return bonusPointsBalance;
     }
@@ -100,9 +117,65 @@ public class Customer {
     }
 
     public void addShoppingList(ShoppingList consumerShoppingList) {
-        List<ShoppingList> newList = new ArrayList<>(this.shoppingLists);
-        newList.add(consumerShoppingList);
-        this.setShoppingLists(newList);
+        ownedShoppingLists(1).add(consumerShoppingList);
+    }
+
+    public List<ShoppingList> mergeShoppingLists(Collection<ShoppingList> consumerShoppingLists) {
+        if (consumerShoppingLists.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<ShoppingList> present = (long) shoppingLists.size() * consumerShoppingLists.size() > LINEAR_MERGE_LIMIT
+                ? new HashSet<>(shoppingLists)
+                : null;
+        List<ShoppingList> added = null;
+
+        for (ShoppingList consumerShoppingList : consumerShoppingLists) {
+            boolean known = present != null
+                    ? !present.add(consumerShoppingList)
+                    : shoppingLists.contains(consumerShoppingList);
+            if (known) {
+                continue;
+            }
+
+            if (added == null) {
+                added = new ArrayList<>(consumerShoppingLists.size());
+            }
+            ownedShoppingLists(consumerShoppingLists.size()).add(consumerShoppingList);
+            added.add(consumerShoppingList);
+        }
+
+        return added == null ? Collections.emptyList() : added;
+    }
+
+    public Customer copy() {
+        Customer copy = new Customer();
+        copy.setInternalId(internalId);
+        copy.setVersion(version);
+        copy.setExternalId(externalId);
+        copy.setMasterExternalId(masterExternalId);
+        copy.setName(name);
+        copy.setCustomerType(customerType);
+        copy.setCompanyNumber(companyNumber);
+        copy.setPreferredStore(preferredStore);
+        copy.setBonusPointsBalance(bonusPointsBalance);
+        if (address != null) {
+            copy.setAddress(new Address(address.getStreet(), address.getCity(), address.getPostalCode()));
+        }
+        copy.shoppingLists = new ArrayList<>(shoppingLists);
+
+        return copy;
+    }
+
+    private List<ShoppingList> ownedShoppingLists(int expectedAdditions) {
+        if (!ownsShoppingLists) {
+            List<ShoppingList> owned = new ArrayList<>(shoppingLists.size() + expectedAdditions);
+            owned.addAll(shoppingLists);
+            shoppingLists = owned;
+            ownsShoppingLists = true;
+        }
+
+        return shoppingLists;
     }
 
     @Override
@@ -0,0 +1,57 @@
+package codingdojo.models;
+
+import codingdojo.types.CustomerField;
+import codingdojo.types.DiscrepancyType;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+public class Discrepancy {
+    private final DiscrepancyType discrepancyType;
+    private final String externalId;
+    private final Set<CustomerField> divergentFields;
+
+    public Discrepancy(DiscrepancyType discrepancyType, String externalId, Set<CustomerField> divergentFields) {
+        this.discrepancyType = discrepancyType;
+        this.externalId = externalId;
+        this.divergentFields = divergentFields.isEmpty()
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(divergentFields));
+    }
+
+    public DiscrepancyType getDiscrepancyType() {
+        return discrepancyType;
+    }
+
+    public String getExternalId() {
+        return externalId;
+    }
+
+    public Set<CustomerField> getDivergentFields() {
+        return divergentFields;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        Discrepancy that = (Discrepancy) o;
+
+        return discrepancyType == that.discrepancyType &&
+                Objects.equals(externalId, that.externalId) &&
+                Objects.equals(divergentFields, that.divergentFields);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(discrepancyType, externalId, divergentFields);
+    }
+}
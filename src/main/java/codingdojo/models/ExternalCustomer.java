@@ -76,6 +76,26 @@ public class ExternalCustomer {
         this.bonusPointsBalance = bonusPointsBalance;
     }
 
+    public long fingerprint() {
+        long hash = Fingerprint.start();
+        hash = address == null ? Fingerprint.add(hash, (String) null) : address.fingerprint(hash);
+        hash = Fingerprint.add(hash, name);
+        hash = Fingerprint.add(hash, preferredStore);
+        hash = Fingerprint.add(hash, companyNumber);
+        hash = Fingerprint.add(hash, bonusPointsBalance);
+
+        if (shoppingLists == null) {
+            hash = Fingerprint.add(hash, (String) null);
+        } else {
+            hash = Fingerprint.add(hash, shoppingLists.size());
+            for (ShoppingList shoppingList : shoppingLists) {
+                hash = shoppingList.fingerprint(hash);
+            }
+        }
+
+        return Fingerprint.finish(hash);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,50 @@
+package codingdojo.models;
+
+public final class Fingerprint {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final long NULL_MARKER = 0x9e3779b97f4a7c15L;
+
+    private Fingerprint() {
+    }
+
+    public static long start() {
+        return OFFSET_BASIS;
+    }
+
+    public static long add(long hash, String value) {
+        if (value == null) {
+            return add(hash, NULL_MARKER);
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= PRIME;
+        }
+
+        return add(hash, value.length());
+    }
+
+    public static long add(long hash, Integer value) {
+        return value == null ? add(hash, NULL_MARKER) : add(hash, value.longValue());
+    }
+
+    public static long add(long hash, long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= PRIME;
+        }
+
+        return hash;
+    }
+
+    public static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
@@ -0,0 +1,70 @@
+package codingdojo.models;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class ProductDictionary {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    static final int NOT_INTERNED = -1;
+    private static final int NULL_ID = 0;
+
+    private final int capacity;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[16];
+    private int size = 1;
+
+    public ProductDictionary() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ProductDictionary(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive but was " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    int idOf(String product) {
+        if (product == null) {
+            return NULL_ID;
+        }
+
+        Integer id = ids.get(product);
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (this) {
+            id = ids.get(product);
+            if (id != null) {
+                return id;
+            }
+
+            if (ids.size() >= capacity) {
+                return NOT_INTERNED;
+            }
+
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+            }
+            names[size] = product;
+            ids.put(product, size);
+
+            return size++;
+        }
+    }
+
+    String nameOf(int id) {
+        return names[id];
+    }
+}
@@ -0,0 +1,48 @@
+package codingdojo.models;
+
+public class ReconciliationReport {
+    public static final ReconciliationReport EMPTY = new ReconciliationReport(0, 0, 0, 0, 0);
+
+    private final long matched;
+    private final long missing;
+    private final long extra;
+    private final long divergent;
+    private final long fixed;
+
+    public ReconciliationReport(long matched, long missing, long extra, long divergent, long fixed) {
+        this.matched = matched;
+        this.missing = missing;
+        this.extra = extra;
+        this.divergent = divergent;
+        this.fixed = fixed;
+    }
+
+    public ReconciliationReport plus(ReconciliationReport other) {
+        return new ReconciliationReport(matched + other.matched, missing + other.missing, extra + other.extra,
+                divergent + other.divergent, fixed + other.fixed);
+    }
+
+    public long getMatched() {
+        return matched;
+    }
+
+    public long getMissing() {
+        return missing;
+    }
+
+    public long getExtra() {
+        return extra;
+    }
+
+    public long getDivergent() {
+        return divergent;
+    }
+
+    public long getFixed() {
+        return fixed;
+    }
+
+    public boolean isConsistent() {
+        return missing == 0 && extra == 0 && divergent == 0;
+    }
+}
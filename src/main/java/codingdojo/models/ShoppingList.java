@@ -1,18 +1,66 @@
 package codingdojo.models;
 
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
+import java.util.RandomAccess;
 
 public class ShoppingList {
-    private final List<String> products;
+    private final ProductDictionary dictionary;
+    private final int[] productIds;
+    private final String[] products;
+    private final int hash;
 
     public ShoppingList(String... products) {
-        this.products = Arrays.asList(products);
+        this.dictionary = null;
+        this.productIds = null;
+        this.products = products.clone();
+        this.hash = Arrays.hashCode(products);
+    }
+
+    public ShoppingList(ProductDictionary dictionary, String... products) {
+        int[] productIds = new int[products.length];
+        for (int i = 0; i < products.length && productIds != null; i++) {
+            productIds[i] = dictionary.idOf(products[i]);
+            if (productIds[i] == ProductDictionary.NOT_INTERNED) {
+                productIds = null;
+            }
+        }
+
+        this.dictionary = productIds == null ? null : dictionary;
+        this.productIds = productIds;
+        this.products = productIds == null ? products.clone() : null;
+        this.hash = Arrays.hashCode(products);
+    }
+
+    public ShoppingList internedIn(ProductDictionary dictionary) {
+        if (this.dictionary == dictionary) {
+            return this;
+        }
+
+        return new ShoppingList(dictionary, getProducts().toArray(new String[0]));
     }
 
     public List<String> getProducts() {
-        return products;
+        return new ProductView(this);
+    }
+
+    public int size() {
+        return productIds != null ? productIds.length : products.length;
+    }
+
+    private String productAt(int index) {
+        return productIds != null ? dictionary.nameOf(productIds[index]) : products[index];
+    }
+
+    long fingerprint(long hash) {
+        int size = size();
+        hash = Fingerprint.add(hash, size);
+        for (int i = 0; i < size; i++) {
+            hash = Fingerprint.add(hash, productAt(i));
+        }
+
+        return hash;
     }
 
     @Override
@@ -26,13 +74,38 @@ public class ShoppingList {
         }
 
         ShoppingList that = (ShoppingList) o;
+        if (hash != that.hash) {
+            return false;
+        }
 
-        return Objects.equals(products, that.products);
+        if (dictionary != null && dictionary == that.dictionary) {
+            return Arrays.equals(productIds, that.productIds);
+        }
+
+        return getProducts().equals(that.getProducts());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(products);
+        return hash;
+    }
+
+    private static final class ProductView extends AbstractList<String> implements RandomAccess {
+        private final ShoppingList shoppingList;
+
+        private ProductView(ShoppingList shoppingList) {
+            this.shoppingList = shoppingList;
+        }
+
+        @Override
+        public String get(int index) {
+            return shoppingList.productAt(index);
+        }
+
+        @Override
+        public int size() {
+            return shoppingList.size();
+        }
     }
 
 }
@@ -0,0 +1,91 @@
+package codingdojo.models;
+
+import codingdojo.types.ConflictType;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class SyncConflict implements Serializable {
+    private final ConflictType conflictType;
+    private final String key;
+    private final String externalId;
+    private final String existingExternalId;
+    private String message;
+
+    private SyncConflict(ConflictType conflictType, String key, String externalId, String existingExternalId, String message) {
+        this.conflictType = conflictType;
+        this.key = key;
+        this.externalId = externalId;
+        this.existingExternalId = existingExternalId;
+        this.message = message;
+    }
+
+    public static SyncConflict notACompany(String externalId) {
+        return new SyncConflict(ConflictType.NOT_A_COMPANY, externalId, externalId, null, null);
+    }
+
+    public static SyncConflict notAPerson(String externalId) {
+        return new SyncConflict(ConflictType.NOT_A_PERSON, externalId, externalId, null, null);
+    }
+
+    public static SyncConflict companyNumberTaken(String companyNumber, String externalId, String existingExternalId) {
+        return new SyncConflict(ConflictType.COMPANY_NUMBER_TAKEN, companyNumber, externalId, existingExternalId, null);
+    }
+
+    public static SyncConflict concurrentUpdate(String externalId, String message) {
+        return new SyncConflict(ConflictType.CONCURRENT_UPDATE, externalId, externalId, null, message);
+    }
+
+    public static SyncConflict of(ConflictType conflictType, String message) {
+        return new SyncConflict(conflictType, null, null, null, message);
+    }
+
+    public ConflictType getConflictType() {
+        return conflictType;
+    }
+
+    public String getMessage() {
+        if (message == null) {
+            message = format();
+        }
+
+        return message;
+    }
+
+    private String format() {
+        switch (conflictType) {
+            case NOT_A_COMPANY:
+                return "Existing customer for externalCustomer " + key + " already exists and is not a company";
+            case NOT_A_PERSON:
+                return "Existing customer for externalCustomer " + key + " already exists and is not a person";
+            case COMPANY_NUMBER_TAKEN:
+                return "Existing customer for externalCustomer " + key + " doesn't match external id " + externalId
+                        + " instead found " + existingExternalId;
+            case CONCURRENT_UPDATE:
+                return "Existing customer for externalCustomer " + key + " kept changing concurrently";
+            default:
+                throw new IllegalStateException("Unknown conflict type " + conflictType);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        SyncConflict that = (SyncConflict) o;
+
+        return conflictType == that.conflictType &&
+                Objects.equals(getMessage(), that.getMessage());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(conflictType, getMessage());
+    }
+}
@@ -0,0 +1,128 @@
+package codingdojo.models;
+
+import codingdojo.types.ConflictType;
+import codingdojo.types.CustomerField;
+import codingdojo.types.SyncOutcome;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+public class SyncResult {
+    private final String externalId;
+    private final SyncOutcome outcome;
+    private final Set<CustomerField> changedFields;
+    private final SyncConflict conflict;
+    private final String matchedBy;
+    private final int duplicatesTouched;
+
+    private SyncResult(String externalId, SyncOutcome outcome, Set<CustomerField> changedFields,
+                       SyncConflict conflict, String matchedBy, int duplicatesTouched) {
+        this.externalId = externalId;
+        this.outcome = outcome;
+        this.changedFields = changedFields.isEmpty()
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(changedFields));
+        this.conflict = conflict;
+        this.matchedBy = matchedBy;
+        this.duplicatesTouched = duplicatesTouched;
+    }
+
+    public static SyncResult created(String externalId, Set<CustomerField> changedFields) {
+        return created(externalId, changedFields, null, 0);
+    }
+
+    public static SyncResult created(String externalId, Set<CustomerField> changedFields, String matchedBy, int duplicatesTouched) {
+        return new SyncResult(externalId, SyncOutcome.CREATED, changedFields, null, matchedBy, duplicatesTouched);
+    }
+
+    public static SyncResult updated(String externalId, Set<CustomerField> changedFields) {
+        return updated(externalId, changedFields, null, 0);
+    }
+
+    public static SyncResult updated(String externalId, Set<CustomerField> changedFields, String matchedBy, int duplicatesTouched) {
+        return new SyncResult(externalId, SyncOutcome.UPDATED, changedFields, null, matchedBy, duplicatesTouched);
+    }
+
+    public static SyncResult unchanged(String externalId) {
+        return unchanged(externalId, null);
+    }
+
+    public static SyncResult unchanged(String externalId, String matchedBy) {
+        return new SyncResult(externalId, SyncOutcome.UNCHANGED, Collections.emptySet(), null, matchedBy, 0);
+    }
+
+    public static SyncResult conflict(String externalId, String conflictMessage) {
+        return conflict(externalId, SyncConflict.of(null, conflictMessage));
+    }
+
+    public static SyncResult conflict(String externalId, SyncConflict conflict) {
+        return new SyncResult(externalId, SyncOutcome.CONFLICT, Collections.emptySet(), conflict, null, 0);
+    }
+
+    public String getExternalId() {
+        return externalId;
+    }
+
+    public SyncOutcome getOutcome() {
+        return outcome;
+    }
+
+    public Set<CustomerField> getChangedFields() {
+        return changedFields;
+    }
+
+    public SyncConflict getConflict() {
+        return conflict;
+    }
+
+    public ConflictType getConflictType() {
+        return conflict == null ? null : conflict.getConflictType();
+    }
+
+    public String getConflictMessage() {
+        return conflict == null ? null : conflict.getMessage();
+    }
+
+    public String getMatchedBy() {
+        return matchedBy;
+    }
+
+    public int getDuplicatesTouched() {
+        return duplicatesTouched;
+    }
+
+    public boolean isConflict() {
+        return SyncOutcome.CONFLICT.equals(outcome);
+    }
+
+    public boolean isCreated() {
+        return SyncOutcome.CREATED.equals(outcome);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        SyncResult that = (SyncResult) o;
+
+        return Objects.equals(externalId, that.externalId) &&
+                outcome == that.outcome &&
+                Objects.equals(changedFields, that.changedFields) &&
+                Objects.equals(conflict, that.conflict) &&
+                Objects.equals(matchedBy, that.matchedBy) &&
+                duplicatesTouched == that.duplicatesTouched;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(externalId, outcome, changedFields, conflict, matchedBy, duplicatesTouched);
+    }
+}
@@ -0,0 +1,64 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Customer;
+import codingdojo.models.ShoppingList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+public interface AsyncCustomerRepository {
+
+    CompletableFuture<Customer> update(Customer customer);
+
+    CompletableFuture<Customer> create(Customer customer);
+
+    CompletableFuture<Customer> updateShoppingList(ShoppingList consumerShoppingList);
+
+    default CompletableFuture<Void> createAll(List<Customer> customers) {
+        List<CompletableFuture<Void>> writes = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            writes.add(create(customer).thenAccept(created -> {
+                if (created != null && created != customer) {
+                    customer.setInternalId(created.getInternalId());
+                    customer.setVersion(created.getVersion());
+                }
+            }));
+        }
+
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0]));
+    }
+
+    default CompletableFuture<Void> updateAll(List<Customer> customers) {
+        List<CompletableFuture<Customer>> writes = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            writes.add(update(customer));
+        }
+
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0]));
+    }
+
+    default CompletableFuture<Void> updateShoppingLists(Customer owner, List<ShoppingList> addedShoppingLists) {
+        List<CompletableFuture<Customer>> writes = new ArrayList<>(addedShoppingLists.size());
+        for (ShoppingList consumerShoppingList : addedShoppingLists) {
+            writes.add(updateShoppingList(consumerShoppingList));
+        }
+
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0]));
+    }
+
+    CompletableFuture<Customer> findByExternalId(String externalId);
+
+    CompletableFuture<Customer> findByMasterExternalId(String externalId);
+
+    CompletableFuture<Customer> findByCompanyNumber(String companyNumber);
+
+    static AsyncCustomerRepository fromBlocking(CustomerRespository customerRespository) {
+        return new ExecutorAsyncCustomerRepository(customerRespository, ExecutorAsyncCustomerRepository.VIRTUAL_THREADS);
+    }
+
+    static AsyncCustomerRepository fromBlocking(CustomerRespository customerRespository, Executor executor) {
+        return new ExecutorAsyncCustomerRepository(customerRespository, executor);
+    }
+}
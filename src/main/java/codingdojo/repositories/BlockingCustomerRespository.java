@@ -0,0 +1,72 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Customer;
+import codingdojo.models.ShoppingList;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class BlockingCustomerRespository implements CustomerRespository {
+    private final AsyncCustomerRepository asyncCustomerRepository;
+
+    public BlockingCustomerRespository(AsyncCustomerRepository asyncCustomerRepository) {
+        this.asyncCustomerRepository = asyncCustomerRepository;
+    }
+
+    @Override
+    public Customer update(Customer customer) {
+        return join(asyncCustomerRepository.update(customer));
+    }
+
+    @Override
+    public Customer create(Customer customer) {
+        return join(asyncCustomerRepository.create(customer));
+    }
+
+    @Override
+    public Customer updateShoppingList(ShoppingList consumerShoppingList) {
+        return join(asyncCustomerRepository.updateShoppingList(consumerShoppingList));
+    }
+
+    @Override
+    public void createAll(List<Customer> customers) {
+        join(asyncCustomerRepository.createAll(customers));
+    }
+
+    @Override
+    public void updateAll(List<Customer> customers) {
+        join(asyncCustomerRepository.updateAll(customers));
+    }
+
+    @Override
+    public void updateShoppingLists(Customer owner, List<ShoppingList> addedShoppingLists) {
+        join(asyncCustomerRepository.updateShoppingLists(owner, addedShoppingLists));
+    }
+
+    @Override
+    public Customer findByExternalId(String externalId) {
+        return join(asyncCustomerRepository.findByExternalId(externalId));
+    }
+
+    @Override
+    public Customer findByMasterExternalId(String externalId) {
+        return join(asyncCustomerRepository.findByMasterExternalId(externalId));
+    }
+
+    @Override
+    public Customer findByCompanyNumber(String companyNumber) {
+        return join(asyncCustomerRepository.findByCompanyNumber(companyNumber));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
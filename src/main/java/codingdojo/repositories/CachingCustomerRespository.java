@@ -0,0 +1,244 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Customer;
+import codingdojo.models.ShoppingList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+public class CachingCustomerRespository implements CustomerRespository {
+    private final CustomerRespository customerRespository;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final CustomerIndex index = new CustomerIndex();
+    private final Map<String, Long> loadedAt;
+    private long writeGeneration;
+    private long hitCount;
+    private long missCount;
+
+    public CachingCustomerRespository(CustomerRespository customerRespository, int maxEntries) {
+        this(customerRespository, maxEntries, 0, TimeUnit.MILLISECONDS);
+    }
+
+    public CachingCustomerRespository(CustomerRespository customerRespository, int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive but was " + maxEntries);
+        }
+
+        this.customerRespository = customerRespository;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.loadedAt = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() > CachingCustomerRespository.this.maxEntries) {
+                    index.remove(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Customer update(Customer customer) {
+        invalidate(customer);
+        Customer updated = customerRespository.update(customer);
+        invalidate(updated);
+
+        return updated;
+    }
+
+    @Override
+    public Customer create(Customer customer) {
+        Customer created = customerRespository.create(customer);
+        invalidate(customer);
+        invalidate(created);
+
+        return created;
+    }
+
+    @Override
+    public Customer updateShoppingList(ShoppingList consumerShoppingList) {
+        return customerRespository.updateShoppingList(consumerShoppingList);
+    }
+
+    @Override
+    public void createAll(List<Customer> customers) {
+        customerRespository.createAll(customers);
+        for (Customer customer : customers) {
+            invalidate(customer);
+        }
+    }
+
+    @Override
+    public void updateAll(List<Customer> customers) {
+        for (Customer customer : customers) {
+            invalidate(customer);
+        }
+        customerRespository.updateAll(customers);
+        for (Customer customer : customers) {
+            invalidate(customer);
+        }
+    }
+
+    @Override
+    public void updateShoppingLists(Customer owner, List<ShoppingList> addedShoppingLists) {
+        invalidate(owner);
+        customerRespository.updateShoppingLists(owner, addedShoppingLists);
+        invalidate(owner);
+    }
+
+    @Override
+    public Customer findByExternalId(String externalId) {
+        return find(externalId, index::findByExternalId, customerRespository::findByExternalId, index::putByExternalId);
+    }
+
+    @Override
+    public Customer findByMasterExternalId(String externalId) {
+        return find(externalId, index::findByMasterExternalId, customerRespository::findByMasterExternalId, index::putByMasterExternalId);
+    }
+
+    @Override
+    public Customer findByCompanyNumber(String companyNumber) {
+        return find(companyNumber, index::findByCompanyNumber, customerRespository::findByCompanyNumber, index::putByCompanyNumber);
+    }
+
+    @Override
+    public Map<String, Customer> findByExternalIds(Collection<String> externalIds) {
+        return findAll(externalIds, index::findByExternalId, customerRespository::findByExternalIds, index::putByExternalId);
+    }
+
+    @Override
+    public Map<String, Customer> findByMasterExternalIds(Collection<String> externalIds) {
+        return findAll(externalIds, index::findByMasterExternalId, customerRespository::findByMasterExternalIds, index::putByMasterExternalId);
+    }
+
+    @Override
+    public Map<String, Customer> findByCompanyNumbers(Collection<String> companyNumbers) {
+        return findAll(companyNumbers, index::findByCompanyNumber, customerRespository::findByCompanyNumbers, index::putByCompanyNumber);
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized int size() {
+        return loadedAt.size();
+    }
+
+    public synchronized void clear() {
+        index.clear();
+        loadedAt.clear();
+        writeGeneration++;
+    }
+
+    private Customer find(String key, Function<String, Customer> cached, Function<String, Customer> loader, Indexer indexer) {
+        long generation;
+        synchronized (this) {
+            Customer customer = lookup(key, cached);
+            if (customer != null) {
+                hitCount++;
+                return customer.copy();
+            }
+            missCount++;
+            generation = writeGeneration;
+        }
+
+        Customer loaded = loader.apply(key);
+
+        synchronized (this) {
+            if (loaded != null && generation == writeGeneration) {
+                cache(key, loaded, indexer);
+            }
+        }
+
+        return loaded;
+    }
+
+    private Map<String, Customer> findAll(Collection<String> keys, Function<String, Customer> cached,
+                                          Function<Collection<String>, Map<String, Customer>> loader, Indexer indexer) {
+        Map<String, Customer> customers = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        long generation;
+
+        synchronized (this) {
+            for (String key : keys) {
+                Customer customer = lookup(key, cached);
+                if (customer != null) {
+                    hitCount++;
+                    customers.put(key, customer.copy());
+                } else {
+                    missCount++;
+                    missing.add(key);
+                }
+            }
+            generation = writeGeneration;
+        }
+
+        if (missing.isEmpty()) {
+            return customers;
+        }
+
+        Map<String, Customer> loaded = loader.apply(missing);
+        customers.putAll(loaded);
+
+        synchronized (this) {
+            if (generation == writeGeneration) {
+                loaded.forEach((key, customer) -> cache(key, customer, indexer));
+            }
+        }
+
+        return customers;
+    }
+
+    private Customer lookup(String key, Function<String, Customer> cached) {
+        Customer customer = cached.apply(key);
+        if (customer == null) {
+            return null;
+        }
+
+        Long loaded = loadedAt.get(customer.getInternalId());
+        if (loaded == null || (ttlNanos > 0 && System.nanoTime() - loaded > ttlNanos)) {
+            index.remove(customer.getInternalId());
+            loadedAt.remove(customer.getInternalId());
+            return null;
+        }
+
+        return customer;
+    }
+
+    private void cache(String key, Customer customer, Indexer indexer) {
+        if (customer.getInternalId() == null) {
+            return;
+        }
+
+        indexer.put(key, customer.copy());
+        loadedAt.putIfAbsent(customer.getInternalId(), System.nanoTime());
+    }
+
+    private synchronized void invalidate(Customer customer) {
+        if (customer == null) {
+            return;
+        }
+
+        for (String internalId : index.invalidate(customer)) {
+            loadedAt.remove(internalId);
+        }
+        writeGeneration++;
+    }
+
+    private interface Indexer {
+        void put(String key, Customer customer);
+    }
+}
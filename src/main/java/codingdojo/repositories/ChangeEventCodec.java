@@ -0,0 +1,77 @@
+package codingdojo.repositories;
+
+import codingdojo.models.ChangeEvent;
+import codingdojo.types.ChangeType;
+import codingdojo.types.CustomerField;
+
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+final class ChangeEventCodec {
+    private static final ChangeType[] CHANGE_TYPES = ChangeType.values();
+    private static final CustomerField[] CUSTOMER_FIELDS = CustomerField.values();
+
+    private ChangeEventCodec() {
+    }
+
+    static byte[] encode(List<ChangeEvent> changeEvents) {
+        int size = 4;
+        for (ChangeEvent changeEvent : changeEvents) {
+            size += encodedSize(changeEvent);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(changeEvents.size());
+        for (ChangeEvent changeEvent : changeEvents) {
+            buffer.put((byte) changeEvent.getChangeType().ordinal());
+            buffer.putInt(fieldMask(changeEvent.getChangedFields()));
+            CustomerCodec.putString(buffer, changeEvent.getInternalId());
+            CustomerCodec.putString(buffer, changeEvent.getExternalId());
+            CustomerCodec.putString(buffer, changeEvent.getPreviousMasterExternalId());
+            CustomerCodec.putString(buffer, changeEvent.getMasterExternalId());
+        }
+
+        return buffer.array();
+    }
+
+    static void decode(ByteBuffer buffer, Consumer<ChangeEvent> consumer) {
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            ChangeType changeType = CHANGE_TYPES[buffer.get()];
+            Set<CustomerField> changedFields = fields(buffer.getInt());
+            consumer.accept(new ChangeEvent(changeType, CustomerCodec.getString(buffer), CustomerCodec.getString(buffer),
+                    changedFields, CustomerCodec.getString(buffer), CustomerCodec.getString(buffer)));
+        }
+    }
+
+    static int encodedSize(ChangeEvent changeEvent) {
+        return 1 + 4
+                + CustomerCodec.stringSize(changeEvent.getInternalId())
+                + CustomerCodec.stringSize(changeEvent.getExternalId())
+                + CustomerCodec.stringSize(changeEvent.getPreviousMasterExternalId())
+                + CustomerCodec.stringSize(changeEvent.getMasterExternalId());
+    }
+
+    private static int fieldMask(Set<CustomerField> changedFields) {
+        int mask = 0;
+        for (CustomerField field : changedFields) {
+            mask |= 1 << field.ordinal();
+        }
+
+        return mask;
+    }
+
+    private static Set<CustomerField> fields(int mask) {
+        Set<CustomerField> changedFields = EnumSet.noneOf(CustomerField.class);
+        for (CustomerField field : CUSTOMER_FIELDS) {
+            if ((mask & (1 << field.ordinal())) != 0) {
+                changedFields.add(field);
+            }
+        }
+
+        return changedFields;
+    }
+}
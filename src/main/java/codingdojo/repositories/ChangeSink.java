@@ -0,0 +1,10 @@
+package codingdojo.repositories;
+
+import codingdojo.models.ChangeEvent;
+
+import java.util.List;
+
+public interface ChangeSink {
+
+    void publish(List<ChangeEvent> changeEvents);
+}
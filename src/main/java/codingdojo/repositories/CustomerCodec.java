@@ -0,0 +1,170 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Address;
+import codingdojo.models.Customer;
+import codingdojo.models.ShoppingList;
+import codingdojo.types.CustomerType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class CustomerCodec {
+    private static final byte NO_TYPE = -1;
+    private static final CustomerType[] CUSTOMER_TYPES = CustomerType.values();
+
+    private CustomerCodec() {
+    }
+
+    public static byte[] encode(Customer customer) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(customer));
+        encode(customer, buffer);
+
+        return buffer.array();
+    }
+
+    public static void encode(Customer customer, ByteBuffer buffer) {
+        putString(buffer, customer.getInternalId());
+        buffer.putLong(customer.getVersion());
+        putString(buffer, customer.getExternalId());
+        putString(buffer, customer.getMasterExternalId());
+        putString(buffer, customer.getName());
+        putString(buffer, customer.getCompanyNumber());
+        putString(buffer, customer.getPreferredStore());
+        buffer.put(customer.getCustomerType() == null ? NO_TYPE : (byte) customer.getCustomerType().ordinal());
+
+        Integer bonusPointsBalance = customer.getBonusPointsBalance();
+        buffer.put((byte) (bonusPointsBalance == null ? 0 : 1));
+        if (bonusPointsBalance != null) {
+            buffer.putInt(bonusPointsBalance);
+        }
+
+        Address address = customer.getAddress();
+        buffer.put((byte) (address == null ? 0 : 1));
+        if (address != null) {
+            putString(buffer, address.getStreet());
+            putString(buffer, address.getCity());
+            putString(buffer, address.getPostalCode());
+        }
+
+        List<ShoppingList> shoppingLists = customer.getShoppingLists();
+        buffer.putInt(shoppingLists == null ? 0 : shoppingLists.size());
+        if (shoppingLists != null) {
+            for (ShoppingList shoppingList : shoppingLists) {
+                List<String> products = shoppingList.getProducts();
+                buffer.putInt(products.size());
+                for (String product : products) {
+                    putString(buffer, product);
+                }
+            }
+        }
+    }
+
+    public static Customer decode(ByteBuffer buffer) {
+        Customer customer = new Customer();
+        customer.setInternalId(getString(buffer));
+        customer.setVersion(buffer.getLong());
+        customer.setExternalId(getString(buffer));
+        customer.setMasterExternalId(getString(buffer));
+        customer.setName(getString(buffer));
+        customer.setCompanyNumber(getString(buffer));
+        customer.setPreferredStore(getString(buffer));
+
+        byte customerType = buffer.get();
+        customer.setCustomerType(customerType == NO_TYPE ? null : CUSTOMER_TYPES[customerType]);
+
+        if (buffer.get() != 0) {
+            customer.setBonusPointsBalance(buffer.getInt());
+        }
+
+        if (buffer.get() != 0) {
+            customer.setAddress(new Address(getString(buffer), getString(buffer), getString(buffer)));
+        }
+
+        int shoppingListCount = buffer.getInt();
+        List<ShoppingList> shoppingLists = new ArrayList<>(shoppingListCount);
+        for (int i = 0; i < shoppingListCount; i++) {
+            String[] products = new String[buffer.getInt()];
+            for (int j = 0; j < products.length; j++) {
+                products[j] = getString(buffer);
+            }
+            shoppingLists.add(new ShoppingList(products));
+        }
+        customer.setShoppingLists(shoppingLists);
+
+        return customer;
+    }
+
+    public static int encodedSize(Customer customer) {
+        int size = stringSize(customer.getInternalId()) + 8
+                + stringSize(customer.getExternalId())
+                + stringSize(customer.getMasterExternalId())
+                + stringSize(customer.getName())
+                + stringSize(customer.getCompanyNumber())
+                + stringSize(customer.getPreferredStore())
+                + 1 + 1 + (customer.getBonusPointsBalance() == null ? 0 : 4) + 1 + 4;
+
+        Address address = customer.getAddress();
+        if (address != null) {
+            size += stringSize(address.getStreet()) + stringSize(address.getCity()) + stringSize(address.getPostalCode());
+        }
+
+        if (customer.getShoppingLists() != null) {
+            for (ShoppingList shoppingList : customer.getShoppingLists()) {
+                size += 4;
+                for (String product : shoppingList.getProducts()) {
+                    size += stringSize(product);
+                }
+            }
+        }
+
+        return size;
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int stringSize(String value) {
+        if (value == null) {
+            return 4;
+        }
+
+        int size = 4;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                size += 1;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                size += 4;
+                i++;
+            } else {
+                size += 3;
+            }
+        }
+
+        return size;
+    }
+}
@@ -0,0 +1,136 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Customer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+class CustomerIndex {
+    private static final int EXTERNAL_ID = 0;
+    private static final int MASTER_EXTERNAL_ID = 1;
+    private static final int COMPANY_NUMBER = 2;
+
+    private final Map<String, Customer> byExternalId = new HashMap<>();
+    private final Map<String, Customer> byMasterExternalId = new HashMap<>();
+    private final Map<String, Customer> byCompanyNumber = new HashMap<>();
+    private final Map<String, String[]> indexedKeys = new HashMap<>();
+
+    Customer findByExternalId(String externalId) {
+        return byExternalId.get(externalId);
+    }
+
+    Customer findByMasterExternalId(String externalId) {
+        return byMasterExternalId.get(externalId);
+    }
+
+    Customer findByCompanyNumber(String companyNumber) {
+        return byCompanyNumber.get(companyNumber);
+    }
+
+    void putByExternalId(String externalId, Customer customer) {
+        putKey(EXTERNAL_ID, externalId, customer);
+    }
+
+    void putByMasterExternalId(String externalId, Customer customer) {
+        putKey(MASTER_EXTERNAL_ID, externalId, customer);
+    }
+
+    void putByCompanyNumber(String companyNumber, Customer customer) {
+        putKey(COMPANY_NUMBER, companyNumber, customer);
+    }
+
+    void put(Customer customer) {
+        if (customer == null) {
+            return;
+        }
+
+        remove(customer.getInternalId());
+        putKey(EXTERNAL_ID, customer.getExternalId(), customer);
+        putKey(MASTER_EXTERNAL_ID, customer.getMasterExternalId(), customer);
+        putKey(COMPANY_NUMBER, customer.getCompanyNumber(), customer);
+    }
+
+    void remove(String internalId) {
+        if (internalId == null) {
+            return;
+        }
+
+        String[] keys = indexedKeys.remove(internalId);
+        if (keys == null) {
+            return;
+        }
+
+        for (int slot = 0; slot < keys.length; slot++) {
+            Map<String, Customer> index = index(slot);
+            Customer indexed = keys[slot] != null ? index.get(keys[slot]) : null;
+            if (indexed != null && internalId.equals(indexed.getInternalId())) {
+                index.remove(keys[slot]);
+            }
+        }
+    }
+
+    Set<String> invalidate(Customer customer) {
+        Set<String> invalidated = new HashSet<>();
+        if (customer == null) {
+            return invalidated;
+        }
+
+        if (customer.getInternalId() != null) {
+            remove(customer.getInternalId());
+            invalidated.add(customer.getInternalId());
+        }
+        removeKey(EXTERNAL_ID, customer.getExternalId(), invalidated);
+        removeKey(MASTER_EXTERNAL_ID, customer.getMasterExternalId(), invalidated);
+        removeKey(COMPANY_NUMBER, customer.getCompanyNumber(), invalidated);
+
+        return invalidated;
+    }
+
+    int size() {
+        return indexedKeys.size();
+    }
+
+    void clear() {
+        byExternalId.clear();
+        byMasterExternalId.clear();
+        byCompanyNumber.clear();
+        indexedKeys.clear();
+    }
+
+    private void putKey(int slot, String key, Customer customer) {
+        if (key == null || customer == null) {
+            return;
+        }
+
+        index(slot).put(key, customer);
+
+        if (customer.getInternalId() != null) {
+            indexedKeys.computeIfAbsent(customer.getInternalId(), internalId -> new String[3])[slot] = key;
+        }
+    }
+
+    private void removeKey(int slot, String key, Set<String> invalidated) {
+        if (key == null) {
+            return;
+        }
+
+        Customer indexed = index(slot).remove(key);
+        if (indexed != null && indexed.getInternalId() != null) {
+            remove(indexed.getInternalId());
+            invalidated.add(indexed.getInternalId());
+        }
+    }
+
+    private Map<String, Customer> index(int slot) {
+        switch (slot) {
+            case EXTERNAL_ID:
+                return byExternalId;
+            case MASTER_EXTERNAL_ID:
+                return byMasterExternalId;
+            default:
+                return byCompanyNumber;
+        }
+    }
+}
@@ -3,6 +3,11 @@ package codingdojo.repositories;
 import codingdojo.models.Customer;
 import codingdojo.models.ShoppingList;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public interface CustomerRespository {
 
     Customer update(Customer customer);
@@ -11,9 +16,67 @@ public interface CustomerRespository {
 
     Customer updateShoppingList(ShoppingList consumerShoppingList);
 
+    default void createAll(List<Customer> customers) {
+        for (Customer customer : customers) {
+            Customer created = create(customer);
+            if (created != null && created != customer) {
+                customer.setInternalId(created.getInternalId());
+                customer.setVersion(created.getVersion());
+            }
+        }
+    }
+
+    default void updateAll(List<Customer> customers) {
+        for (Customer customer : customers) {
+            update(customer);
+        }
+    }
+
+    default void updateShoppingLists(Customer owner, List<ShoppingList> addedShoppingLists) {
+        for (ShoppingList consumerShoppingList : addedShoppingLists) {
+            updateShoppingList(consumerShoppingList);
+        }
+    }
+
     Customer findByExternalId(String externalId);
 
     Customer findByMasterExternalId(String externalId);
 
     Customer findByCompanyNumber(String companyNumber);
+
+    default Map<String, Customer> findByExternalIds(Collection<String> externalIds) {
+        Map<String, Customer> customers = new HashMap<>();
+        for (String externalId : externalIds) {
+            Customer customer = findByExternalId(externalId);
+            if (customer != null) {
+                customers.put(externalId, customer);
+            }
+        }
+
+        return customers;
+    }
+
+    default Map<String, Customer> findByMasterExternalIds(Collection<String> externalIds) {
+        Map<String, Customer> customers = new HashMap<>();
+        for (String externalId : externalIds) {
+            Customer customer = findByMasterExternalId(externalId);
+            if (customer != null) {
+                customers.put(externalId, customer);
+            }
+        }
+
+        return customers;
+    }
+
+    default Map<String, Customer> findByCompanyNumbers(Collection<String> companyNumbers) {
+        Map<String, Customer> customers = new HashMap<>();
+        for (String companyNumber : companyNumbers) {
+            Customer customer = findByCompanyNumber(companyNumber);
+            if (customer != null) {
+                customers.put(companyNumber, customer);
+            }
+        }
+
+        return customers;
+    }
 }
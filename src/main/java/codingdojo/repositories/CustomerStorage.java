@@ -0,0 +1,18 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Customer;
+
+import java.util.function.Consumer;
+
+interface CustomerStorage {
+
+    Customer get(long internalId);
+
+    void put(long internalId, Customer customer);
+
+    void remove(long internalId);
+
+    int size();
+
+    void forEach(Consumer<Customer> action);
+}
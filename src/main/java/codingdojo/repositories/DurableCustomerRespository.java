@@ -0,0 +1,307 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Customer;
+import codingdojo.models.ShoppingList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class DurableCustomerRespository implements ScannableCustomerRespository, AutoCloseable {
+    private static final int SNAPSHOT_MAGIC = 0x43535350;
+    private static final String SNAPSHOT_FILE = "customers.snapshot";
+    private static final int DEFAULT_REGION_SIZE = 16 * 1024 * 1024;
+    private static final long DEFAULT_SNAPSHOT_THRESHOLD = 64L * 1024 * 1024;
+
+    private final Path directory;
+    private final InMemoryCustomerRespository store;
+    private final int regionSize;
+    private final long snapshotThreshold;
+    private long generation;
+    private WriteAheadLog log;
+
+    private DurableCustomerRespository(Path directory, InMemoryCustomerRespository store, int regionSize, long snapshotThreshold) {
+        this.directory = directory;
+        this.store = store;
+        this.regionSize = regionSize;
+        this.snapshotThreshold = snapshotThreshold;
+    }
+
+    public static DurableCustomerRespository open(Path directory) {
+        return open(directory, new InMemoryCustomerRespository(), DEFAULT_REGION_SIZE, DEFAULT_SNAPSHOT_THRESHOLD);
+    }
+
+    public static DurableCustomerRespository open(Path directory, InMemoryCustomerRespository emptyStore,
+                                                  int regionSize, long snapshotThreshold) {
+        if (emptyStore.size() != 0) {
+            throw new IllegalArgumentException("The store to recover into must be empty");
+        }
+
+        DurableCustomerRespository repository = new DurableCustomerRespository(directory, emptyStore, regionSize, snapshotThreshold);
+        try {
+            Files.createDirectories(directory);
+            repository.recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open customer store in " + directory, e);
+        }
+
+        return repository;
+    }
+
+    @Override
+    public Customer create(Customer customer) {
+        WriteAheadLog current;
+        long position;
+        synchronized (this) {
+            store.create(customer);
+            current = log;
+            position = appendOrRollBack(Collections.singletonList(customer), null);
+        }
+        current.sync(position);
+
+        return customer;
+    }
+
+    @Override
+    public Customer update(Customer customer) {
+        WriteAheadLog current;
+        long position;
+        synchronized (this) {
+            List<Customer> previous = Collections.singletonList(store.findByInternalId(customer.getInternalId()));
+            store.update(customer);
+            current = log;
+            position = appendOrRollBack(Collections.singletonList(customer), previous);
+        }
+        current.sync(position);
+
+        return customer;
+    }
+
+    @Override
+    public void createAll(List<Customer> customers) {
+        WriteAheadLog current;
+        long position;
+        synchronized (this) {
+            store.createAll(customers);
+            current = log;
+            position = appendOrRollBack(customers, null);
+        }
+        current.sync(position);
+    }
+
+    @Override
+    public void updateAll(List<Customer> customers) {
+        WriteAheadLog current;
+        long position;
+        synchronized (this) {
+            List<Customer> previous = new ArrayList<>(customers.size());
+            for (Customer customer : customers) {
+                previous.add(store.findByInternalId(customer.getInternalId()));
+            }
+            store.updateAll(customers);
+            current = log;
+            position = appendOrRollBack(customers, previous);
+        }
+        current.sync(position);
+    }
+
+    @Override
+    public Customer updateShoppingList(ShoppingList consumerShoppingList) {
+        return store.updateShoppingList(consumerShoppingList);
+    }
+
+    @Override
+    public void updateShoppingLists(Customer owner, List<ShoppingList> addedShoppingLists) {
+        WriteAheadLog current;
+        long position;
+        synchronized (this) {
+            Customer previous = store.findByInternalId(owner.getInternalId());
+            store.updateShoppingLists(owner, addedShoppingLists);
+            if (previous == null || owner.getVersion() == previous.getVersion()) {
+                return;
+            }
+
+            current = log;
+            try {
+                position = appendOrRollBack(Collections.singletonList(store.findByInternalId(owner.getInternalId())),
+                        Collections.singletonList(previous));
+            } catch (RuntimeException e) {
+                owner.setVersion(previous.getVersion());
+                throw e;
+            }
+        }
+        current.sync(position);
+    }
+
+    @Override
+    public Customer findByExternalId(String externalId) {
+        return store.findByExternalId(externalId);
+    }
+
+    @Override
+    public Customer findByMasterExternalId(String externalId) {
+        return store.findByMasterExternalId(externalId);
+    }
+
+    @Override
+    public Customer findByCompanyNumber(String companyNumber) {
+        return store.findByCompanyNumber(companyNumber);
+    }
+
+    @Override
+    public void scanByExternalId(String fromInclusive, String toExclusive, Consumer<Customer> consumer) {
+        store.scanByExternalId(fromInclusive, toExclusive, consumer);
+    }
+
+    public Customer findByInternalId(String internalId) {
+        return store.findByInternalId(internalId);
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    public synchronized long getLogSize() {
+        return log.size();
+    }
+
+    public synchronized void snapshot() {
+        try {
+            long next = generation + 1;
+            Path snapshot = directory.resolve(SNAPSHOT_FILE);
+            Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeLong(next);
+                out.writeInt(store.size());
+                IOException[] failure = new IOException[1];
+                store.forEach(customer -> {
+                    if (failure[0] != null) {
+                        return;
+                    }
+                    try {
+                        byte[] bytes = CustomerCodec.encode(customer);
+                        out.writeInt(bytes.length);
+                        out.write(bytes);
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                });
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            WriteAheadLog previous = log;
+            log = WriteAheadLog.open(logFile(next), regionSize, payload -> { });
+            generation = next;
+            previous.close();
+            deleteLogsBefore(next);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not snapshot customer store in " + directory, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            log.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close customer store in " + directory, e);
+        }
+    }
+
+    private long appendOrRollBack(List<Customer> customers, List<Customer> previous) {
+        long position = log.size();
+        int appended = 0;
+        try {
+            for (Customer customer : customers) {
+                position = log.append(CustomerCodec.encode(customer));
+                appended++;
+            }
+        } catch (RuntimeException e) {
+            for (int i = appended; i < customers.size(); i++) {
+                rollBack(customers.get(i), previous == null ? null : previous.get(i));
+            }
+            throw e;
+        }
+        snapshotIfLogIsFull();
+
+        return position;
+    }
+
+    private void rollBack(Customer customer, Customer previous) {
+        if (previous == null) {
+            store.discard(customer);
+            customer.setInternalId(null);
+            customer.setVersion(0);
+        } else {
+            store.restore(previous);
+            customer.setVersion(previous.getVersion());
+        }
+    }
+
+    private void snapshotIfLogIsFull() {
+        if (log.size() >= snapshotThreshold) {
+            snapshot();
+        }
+    }
+
+    private void recover() throws IOException {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16))) {
+                if (in.readInt() != SNAPSHOT_MAGIC) {
+                    throw new IOException("Not a customer snapshot: " + snapshot);
+                }
+
+                generation = in.readLong();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    store.restore(CustomerCodec.decode(ByteBuffer.wrap(bytes)));
+                }
+            }
+        }
+
+        log = WriteAheadLog.open(logFile(generation), regionSize, payload -> store.restore(CustomerCodec.decode(payload)));
+        deleteLogsBefore(generation);
+    }
+
+    private Path logFile(long generation) {
+        return directory.resolve("customers-" + generation + ".wal");
+    }
+
+    private void deleteLogsBefore(long generation) throws IOException {
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, "customers-*.wal")) {
+            for (Path file : logs) {
+                String name = file.getFileName().toString();
+                long fileGeneration = Long.parseLong(name.substring("customers-".length(), name.length() - ".wal".length()));
+                if (fileGeneration < generation) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+}
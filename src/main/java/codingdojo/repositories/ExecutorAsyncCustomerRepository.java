@@ -0,0 +1,66 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Customer;
+import codingdojo.models.ShoppingList;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+class ExecutorAsyncCustomerRepository implements AsyncCustomerRepository {
+    static final Executor VIRTUAL_THREADS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final CustomerRespository customerRespository;
+    private final Executor executor;
+
+    ExecutorAsyncCustomerRepository(CustomerRespository customerRespository, Executor executor) {
+        this.customerRespository = customerRespository;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Customer> update(Customer customer) {
+        return CompletableFuture.supplyAsync(() -> customerRespository.update(customer), executor);
+    }
+
+    @Override
+    public CompletableFuture<Customer> create(Customer customer) {
+        return CompletableFuture.supplyAsync(() -> customerRespository.create(customer), executor);
+    }
+
+    @Override
+    public CompletableFuture<Customer> updateShoppingList(ShoppingList consumerShoppingList) {
+        return CompletableFuture.supplyAsync(() -> customerRespository.updateShoppingList(consumerShoppingList), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> createAll(List<Customer> customers) {
+        return CompletableFuture.runAsync(() -> customerRespository.createAll(customers), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> updateAll(List<Customer> customers) {
+        return CompletableFuture.runAsync(() -> customerRespository.updateAll(customers), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> updateShoppingLists(Customer owner, List<ShoppingList> addedShoppingLists) {
+        return CompletableFuture.runAsync(() -> customerRespository.updateShoppingLists(owner, addedShoppingLists), executor);
+    }
+
+    @Override
+    public CompletableFuture<Customer> findByExternalId(String externalId) {
+        return CompletableFuture.supplyAsync(() -> customerRespository.findByExternalId(externalId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Customer> findByMasterExternalId(String externalId) {
+        return CompletableFuture.supplyAsync(() -> customerRespository.findByMasterExternalId(externalId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Customer> findByCompanyNumber(String companyNumber) {
+        return CompletableFuture.supplyAsync(() -> customerRespository.findByCompanyNumber(companyNumber), executor);
+    }
+}
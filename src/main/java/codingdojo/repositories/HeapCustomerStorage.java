@@ -0,0 +1,46 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Customer;
+import codingdojo.models.ProductDictionary;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+class HeapCustomerStorage implements CustomerStorage {
+    private final Map<Long, Customer> customers = new ConcurrentHashMap<>();
+    private final ProductDictionary productDictionary;
+
+    HeapCustomerStorage(ProductDictionary productDictionary) {
+        this.productDictionary = productDictionary;
+    }
+
+    @Override
+    public Customer get(long internalId) {
+        Customer customer = customers.get(internalId);
+
+        return customer == null ? null : customer.copy();
+    }
+
+    @Override
+    public void put(long internalId, Customer customer) {
+        Customer copy = customer.copy();
+        copy.getShoppingLists().replaceAll(shoppingList -> shoppingList.internedIn(productDictionary));
+        customers.put(internalId, copy);
+    }
+
+    @Override
+    public void remove(long internalId) {
+        customers.remove(internalId);
+    }
+
+    @Override
+    public int size() {
+        return customers.size();
+    }
+
+    @Override
+    public void forEach(Consumer<Customer> action) {
+        customers.values().forEach(customer -> action.accept(customer.copy()));
+    }
+}
@@ -0,0 +1,317 @@
+package codingdojo.repositories;
+
+import codingdojo.exceptions.ConcurrentUpdateException;
+import codingdojo.models.Customer;
+import codingdojo.models.ProductDictionary;
+import codingdojo.models.ShoppingList;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class InMemoryCustomerRespository implements ScannableCustomerRespository {
+    private final CustomerStorage storage;
+    private final AtomicLong lastInternalId = new AtomicLong();
+    private final ConcurrentNavigableMap<String, long[]> byExternalId = new ConcurrentSkipListMap<>();
+    private final Map<String, long[]> byMasterExternalId = new ConcurrentHashMap<>();
+    private final Map<String, long[]> byCompanyNumber = new ConcurrentHashMap<>();
+
+    public InMemoryCustomerRespository() {
+        this(new ProductDictionary());
+    }
+
+    public InMemoryCustomerRespository(ProductDictionary productDictionary) {
+        this(new HeapCustomerStorage(productDictionary));
+    }
+
+    private InMemoryCustomerRespository(CustomerStorage storage) {
+        this.storage = storage;
+    }
+
+    public static InMemoryCustomerRespository offHeap(int segmentSize) {
+        return new InMemoryCustomerRespository(new OffHeapCustomerStorage(segmentSize));
+    }
+
+    @Override
+    public synchronized Customer create(Customer customer) {
+        checkNotCreated(customer);
+        insert(customer);
+
+        return customer;
+    }
+
+    @Override
+    public synchronized Customer update(Customer customer) {
+        replace(customer, checkVersion(customer));
+
+        return customer;
+    }
+
+    @Override
+    public synchronized void createAll(List<Customer> customers) {
+        for (Customer customer : customers) {
+            checkNotCreated(customer);
+        }
+        for (Customer customer : customers) {
+            insert(customer);
+        }
+    }
+
+    @Override
+    public synchronized void updateAll(List<Customer> customers) {
+        Set<Long> internalIds = new HashSet<>();
+        Customer[] previous = new Customer[customers.size()];
+        for (int i = 0; i < previous.length; i++) {
+            Customer customer = customers.get(i);
+            if (!internalIds.add(internalIdOf(customer))) {
+                throw new IllegalArgumentException("Customer " + customer.getInternalId() + " appears more than once in one batch");
+            }
+            previous[i] = checkVersion(customer);
+        }
+        for (int i = 0; i < previous.length; i++) {
+            replace(customers.get(i), previous[i]);
+        }
+    }
+
+    @Override
+    public Customer updateShoppingList(ShoppingList consumerShoppingList) {
+        return null;
+    }
+
+    @Override
+    public synchronized void updateShoppingLists(Customer owner, List<ShoppingList> addedShoppingLists) {
+        long internalId = internalIdOf(owner);
+        Customer stored = storage.get(internalId);
+        if (stored == null) {
+            throw new IllegalArgumentException("No customer with internalId " + owner.getInternalId());
+        }
+
+        if (!stored.mergeShoppingLists(addedShoppingLists).isEmpty()) {
+            stored.setVersion(stored.getVersion() + 1);
+            storage.put(internalId, stored);
+        }
+        owner.setVersion(stored.getVersion());
+    }
+
+    @Override
+    public Customer findByExternalId(String externalId) {
+        long[] internalIds = externalId == null ? null : byExternalId.get(externalId);
+        return internalIds == null ? null : ownerOf(externalId, internalIds);
+    }
+
+    @Override
+    public Customer findByMasterExternalId(String externalId) {
+        return find(byMasterExternalId, externalId);
+    }
+
+    @Override
+    public Customer findByCompanyNumber(String companyNumber) {
+        return find(byCompanyNumber, companyNumber);
+    }
+
+    @Override
+    public void scanByExternalId(String fromInclusive, String toExclusive, Consumer<Customer> consumer) {
+        ConcurrentNavigableMap<String, long[]> range = byExternalId;
+        if (fromInclusive != null) {
+            range = range.tailMap(fromInclusive, true);
+        }
+        if (toExclusive != null) {
+            range = range.headMap(toExclusive, false);
+        }
+
+        for (Map.Entry<String, long[]> entry : range.entrySet()) {
+            Customer customer = ownerOf(entry.getKey(), entry.getValue());
+            if (customer != null) {
+                consumer.accept(customer);
+            }
+        }
+    }
+
+    synchronized void restore(Customer customer) {
+        long internalId = internalIdOf(customer);
+        Customer previous = storage.get(internalId);
+        storage.put(internalId, customer);
+        if (previous != null) {
+            unindex(previous, internalId);
+        }
+        index(customer, internalId);
+        lastInternalId.accumulateAndGet(internalId, Math::max);
+    }
+
+    synchronized void discard(Customer customer) {
+        long internalId = internalIdOf(customer);
+        Customer previous = storage.get(internalId);
+        if (previous != null) {
+            unindex(previous, internalId);
+            storage.remove(internalId);
+        }
+    }
+
+    public Customer findByInternalId(String internalId) {
+        return storage.get(Long.parseLong(internalId));
+    }
+
+    public int size() {
+        return storage.size();
+    }
+
+    public void forEach(Consumer<Customer> action) {
+        storage.forEach(action);
+    }
+
+    private void checkNotCreated(Customer customer) {
+        Customer sameExternalId = findByExternalId(customer.getExternalId());
+        if (sameExternalId != null && customer.getCustomerType() != null
+                && customer.getCustomerType() == sameExternalId.getCustomerType()
+                && customer.getExternalId().equals(sameExternalId.getMasterExternalId())) {
+            throw new ConcurrentUpdateException("Customer with externalId " + customer.getExternalId() + " was created concurrently");
+        }
+
+        if (find(byCompanyNumber, customer.getCompanyNumber()) != null) {
+            throw new ConcurrentUpdateException("Customer with companyNumber " + customer.getCompanyNumber() + " was created concurrently");
+        }
+    }
+
+    private Customer checkVersion(Customer customer) {
+        Customer previous = storage.get(internalIdOf(customer));
+        if (previous == null) {
+            throw new IllegalArgumentException("No customer with internalId " + customer.getInternalId());
+        }
+        if (previous.getVersion() != customer.getVersion()) {
+            throw new ConcurrentUpdateException("Customer " + customer.getInternalId() + " is at version " + previous.getVersion()
+                    + " but the update was based on version " + customer.getVersion());
+        }
+
+        return previous;
+    }
+
+    private void insert(Customer customer) {
+        long internalId = lastInternalId.incrementAndGet();
+        customer.setInternalId(Long.toString(internalId));
+        customer.setVersion(1);
+        try {
+            storage.put(internalId, customer);
+        } catch (RuntimeException e) {
+            customer.setInternalId(null);
+            customer.setVersion(0);
+            throw e;
+        }
+        index(customer, internalId);
+    }
+
+    private void replace(Customer customer, Customer previous) {
+        long internalId = internalIdOf(customer);
+        customer.setVersion(previous.getVersion() + 1);
+        try {
+            storage.put(internalId, customer);
+        } catch (RuntimeException e) {
+            customer.setVersion(previous.getVersion());
+            throw e;
+        }
+        unindex(previous, internalId);
+        index(customer, internalId);
+    }
+
+    private void index(Customer customer, long internalId) {
+        index(byExternalId, customer.getExternalId(), internalId);
+        index(byMasterExternalId, customer.getMasterExternalId(), internalId);
+        index(byCompanyNumber, customer.getCompanyNumber(), internalId);
+    }
+
+    private void unindex(Customer previous, long internalId) {
+        unindex(byExternalId, previous.getExternalId(), internalId);
+        unindex(byMasterExternalId, previous.getMasterExternalId(), internalId);
+        unindex(byCompanyNumber, previous.getCompanyNumber(), internalId);
+    }
+
+    private Customer find(Map<String, long[]> index, String key) {
+        if (key == null) {
+            return null;
+        }
+
+        long[] internalIds = index.get(key);
+        if (internalIds == null) {
+            return null;
+        }
+        return oldestOf(internalIds);
+    }
+
+    private Customer ownerOf(String externalId, long[] internalIds) {
+        for (long internalId : internalIds) {
+            Customer customer = storage.get(internalId);
+            if (customer != null && externalId.equals(customer.getMasterExternalId())) {
+                return customer;
+            }
+        }
+
+        return oldestOf(internalIds);
+    }
+
+    private Customer oldestOf(long[] internalIds) {
+        for (long internalId : internalIds) {
+            Customer customer = storage.get(internalId);
+            if (customer != null) {
+                return customer;
+            }
+        }
+
+        return null;
+    }
+
+    private static long internalIdOf(Customer customer) {
+        try {
+            return Long.parseLong(customer.getInternalId());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not an internalId of this repository: " + customer.getInternalId(), e);
+        }
+    }
+
+    private static void index(Map<String, long[]> index, String key, long internalId) {
+        if (key != null) {
+            index.merge(key, new long[]{internalId}, InMemoryCustomerRespository::union);
+        }
+    }
+
+    private static void unindex(Map<String, long[]> index, String key, long internalId) {
+        if (key != null) {
+            index.computeIfPresent(key, (k, internalIds) -> without(internalIds, internalId));
+        }
+    }
+
+    private static long[] union(long[] internalIds, long[] added) {
+        long internalId = added[0];
+        int at = Arrays.binarySearch(internalIds, internalId);
+        if (at >= 0) {
+            return internalIds;
+        }
+
+        at = -at - 1;
+        long[] union = new long[internalIds.length + 1];
+        System.arraycopy(internalIds, 0, union, 0, at);
+        union[at] = internalId;
+        System.arraycopy(internalIds, at, union, at + 1, internalIds.length - at);
+        return union;
+    }
+
+    private static long[] without(long[] internalIds, long internalId) {
+        int at = Arrays.binarySearch(internalIds, internalId);
+        if (at < 0) {
+            return internalIds;
+        }
+        if (internalIds.length == 1) {
+            return null;
+        }
+
+        long[] remaining = new long[internalIds.length - 1];
+        System.arraycopy(internalIds, 0, remaining, 0, at);
+        System.arraycopy(internalIds, at + 1, remaining, at, remaining.length - at);
+        return remaining;
+    }
+}
@@ -0,0 +1,106 @@
+package codingdojo.repositories;
+
+import codingdojo.models.ChangeEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class MappedFileChangeSink implements ChangeSink, AutoCloseable {
+    private static final int DEFAULT_REGION_SIZE = 4 * 1024 * 1024;
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final Path file;
+    private final WriteAheadLog log;
+    private final int batchSize;
+    private final int maxRecordSize;
+    private int unsynced;
+
+    private MappedFileChangeSink(Path file, WriteAheadLog log, int regionSize, int batchSize) {
+        this.file = file;
+        this.log = log;
+        this.batchSize = batchSize;
+        this.maxRecordSize = regionSize / 2;
+    }
+
+    public static MappedFileChangeSink open(Path file) {
+        return open(file, DEFAULT_REGION_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    public static MappedFileChangeSink open(Path file, int regionSize, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive but was " + batchSize);
+        }
+
+        try {
+            return new MappedFileChangeSink(file, WriteAheadLog.open(file, regionSize, payload -> { }), regionSize, batchSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open change log " + file, e);
+        }
+    }
+
+    public static long read(Path file, long fromPosition, Consumer<ChangeEvent> consumer) {
+        try {
+            return WriteAheadLog.read(file, fromPosition, payload -> ChangeEventCodec.decode(payload, consumer));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read change log " + file, e);
+        }
+    }
+
+    @Override
+    public void publish(List<ChangeEvent> changeEvents) {
+        long position;
+        synchronized (this) {
+            position = append(changeEvents);
+            unsynced += changeEvents.size();
+            if (unsynced < batchSize) {
+                return;
+            }
+            unsynced = 0;
+        }
+        log.sync(position);
+    }
+
+    public void flush() {
+        long position;
+        synchronized (this) {
+            position = log.size();
+            unsynced = 0;
+        }
+        log.sync(position);
+    }
+
+    public synchronized long size() {
+        return log.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            log.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close change log " + file, e);
+        }
+    }
+
+    private long append(List<ChangeEvent> changeEvents) {
+        int from = 0;
+        int recordSize = 4;
+        for (int i = 0; i < changeEvents.size(); i++) {
+            int eventSize = ChangeEventCodec.encodedSize(changeEvents.get(i));
+            if (i > from && recordSize + eventSize > maxRecordSize) {
+                log.append(ChangeEventCodec.encode(changeEvents.subList(from, i)));
+                from = i;
+                recordSize = 4;
+            }
+            recordSize += eventSize;
+        }
+        if (from < changeEvents.size()) {
+            log.append(ChangeEventCodec.encode(changeEvents.subList(from, changeEvents.size())));
+        }
+
+        return log.size();
+    }
+}
@@ -0,0 +1,195 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Customer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+class OffHeapCustomerStorage implements CustomerStorage {
+    private static final long EMPTY = -1L;
+
+    private final int segmentSize;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private List<ByteBuffer> segments = new ArrayList<>();
+    private long[] locations = new long[1024];
+    private int size;
+    private long liveBytes;
+    private long usedBytes;
+
+    OffHeapCustomerStorage(int segmentSize) {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("segmentSize must be at least 1024 bytes but was " + segmentSize);
+        }
+
+        this.segmentSize = segmentSize;
+        Arrays.fill(locations, EMPTY);
+    }
+
+    @Override
+    public Customer get(long internalId) {
+        lock.readLock().lock();
+        try {
+            long location = location(internalId);
+            return location == EMPTY ? null : read(location);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(long internalId, Customer customer) {
+        byte[] record = CustomerCodec.encode(customer);
+        if (record.length + 4 > segmentSize) {
+            throw new IllegalArgumentException("Customer " + internalId + " needs " + record.length + " bytes, segments hold " + segmentSize);
+        }
+
+        lock.writeLock().lock();
+        try {
+            long previous = location(internalId);
+            if (previous == EMPTY) {
+                size++;
+            } else {
+                liveBytes -= recordSize(previous);
+            }
+
+            setLocation(internalId, append(record));
+            liveBytes += record.length + 4;
+
+            if (usedBytes > 2L * segmentSize && liveBytes < usedBytes / 2) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long internalId) {
+        lock.writeLock().lock();
+        try {
+            long previous = location(internalId);
+            if (previous != EMPTY) {
+                size--;
+                liveBytes -= recordSize(previous);
+                locations[(int) internalId] = EMPTY;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<Customer> action) {
+        List<Customer> batch = new ArrayList<>(1024);
+        for (long internalId = 0; ; ) {
+            lock.readLock().lock();
+            try {
+                if (internalId >= locations.length) {
+                    break;
+                }
+                for (; internalId < locations.length && batch.size() < 1024; internalId++) {
+                    if (locations[(int) internalId] != EMPTY) {
+                        batch.add(read(locations[(int) internalId]));
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            batch.forEach(action);
+            batch.clear();
+        }
+    }
+
+    long getUsedBytes() {
+        lock.readLock().lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long append(byte[] record) {
+        ByteBuffer segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.remaining() < record.length + 4) {
+            segment = ByteBuffer.allocateDirect(segmentSize);
+            segments.add(segment);
+        }
+
+        long location = ((long) (segments.size() - 1) << 32) | segment.position();
+        segment.putInt(record.length);
+        segment.put(record);
+        usedBytes += record.length + 4;
+
+        return location;
+    }
+
+    private Customer read(long location) {
+        ByteBuffer segment = segments.get((int) (location >>> 32)).duplicate();
+        int offset = (int) location;
+        int length = segment.getInt(offset);
+        segment.limit(offset + 4 + length).position(offset + 4);
+
+        return CustomerCodec.decode(segment);
+    }
+
+    private int recordSize(long location) {
+        return segments.get((int) (location >>> 32)).getInt((int) location) + 4;
+    }
+
+    private void compact() {
+        List<ByteBuffer> previousSegments = segments;
+        segments = new ArrayList<>();
+        usedBytes = 0;
+
+        for (int internalId = 0; internalId < locations.length; internalId++) {
+            long location = locations[internalId];
+            if (location == EMPTY) {
+                continue;
+            }
+
+            ByteBuffer segment = previousSegments.get((int) (location >>> 32));
+            int offset = (int) location;
+            byte[] record = new byte[segment.getInt(offset)];
+            segment.get(offset + 4, record);
+            locations[internalId] = append(record);
+        }
+    }
+
+    private long location(long internalId) {
+        return internalId < 0 || internalId >= locations.length ? EMPTY : locations[(int) internalId];
+    }
+
+    private void setLocation(long internalId, long location) {
+        if (internalId < 0 || internalId >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("internalId out of range: " + internalId);
+        }
+
+        if (internalId >= locations.length) {
+            int length = locations.length;
+            while (length <= internalId) {
+                length *= 2;
+            }
+            int previousLength = locations.length;
+            locations = Arrays.copyOf(locations, length);
+            Arrays.fill(locations, previousLength, length, EMPTY);
+        }
+
+        locations[(int) internalId] = location;
+    }
+}
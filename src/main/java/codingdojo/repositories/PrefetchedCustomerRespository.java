@@ -0,0 +1,110 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Customer;
+import codingdojo.models.ShoppingList;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class PrefetchedCustomerRespository implements CustomerRespository {
+    private final CustomerRespository customerRespository;
+    private final CustomerIndex index = new CustomerIndex();
+    private final Set<String> prefetchedExternalIds = new HashSet<>();
+    private final Set<String> prefetchedCompanyNumbers = new HashSet<>();
+
+    public PrefetchedCustomerRespository(CustomerRespository customerRespository,
+                                         Collection<String> externalIds,
+                                         Collection<String> companyNumbers) {
+        this.customerRespository = customerRespository;
+        this.prefetchedExternalIds.addAll(externalIds);
+        this.prefetchedCompanyNumbers.addAll(companyNumbers);
+
+        if (!prefetchedExternalIds.isEmpty()) {
+            customerRespository.findByExternalIds(prefetchedExternalIds).forEach(index::putByExternalId);
+            customerRespository.findByMasterExternalIds(prefetchedExternalIds).forEach(index::putByMasterExternalId);
+        }
+
+        if (!prefetchedCompanyNumbers.isEmpty()) {
+            customerRespository.findByCompanyNumbers(prefetchedCompanyNumbers).forEach(index::putByCompanyNumber);
+        }
+    }
+
+    public boolean isExternalIdAbsent(String externalId) {
+        return prefetchedExternalIds.contains(externalId) && index.findByExternalId(externalId) == null;
+    }
+
+    public boolean isCompanyNumberAbsent(String companyNumber) {
+        return prefetchedCompanyNumbers.contains(companyNumber) && index.findByCompanyNumber(companyNumber) == null;
+    }
+
+    @Override
+    public Customer update(Customer customer) {
+        Customer updated = customerRespository.update(customer);
+        index.put(updated != null ? updated : customer);
+
+        return updated;
+    }
+
+    @Override
+    public Customer create(Customer customer) {
+        Customer created = customerRespository.create(customer);
+        index.put(created != null ? created : customer);
+
+        return created;
+    }
+
+    @Override
+    public Customer updateShoppingList(ShoppingList consumerShoppingList) {
+        return customerRespository.updateShoppingList(consumerShoppingList);
+    }
+
+    @Override
+    public void createAll(List<Customer> customers) {
+        customerRespository.createAll(customers);
+        for (Customer customer : customers) {
+            index.put(customer);
+        }
+    }
+
+    @Override
+    public void updateAll(List<Customer> customers) {
+        customerRespository.updateAll(customers);
+        for (Customer customer : customers) {
+            index.put(customer);
+        }
+    }
+
+    @Override
+    public void updateShoppingLists(Customer owner, List<ShoppingList> addedShoppingLists) {
+        customerRespository.updateShoppingLists(owner, addedShoppingLists);
+    }
+
+    @Override
+    public Customer findByExternalId(String externalId) {
+        if (prefetchedExternalIds.contains(externalId)) {
+            return index.findByExternalId(externalId);
+        }
+
+        return customerRespository.findByExternalId(externalId);
+    }
+
+    @Override
+    public Customer findByMasterExternalId(String externalId) {
+        if (prefetchedExternalIds.contains(externalId)) {
+            return index.findByMasterExternalId(externalId);
+        }
+
+        return customerRespository.findByMasterExternalId(externalId);
+    }
+
+    @Override
+    public Customer findByCompanyNumber(String companyNumber) {
+        if (prefetchedCompanyNumbers.contains(companyNumber)) {
+            return index.findByCompanyNumber(companyNumber);
+        }
+
+        return customerRespository.findByCompanyNumber(companyNumber);
+    }
+}
@@ -0,0 +1,10 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Customer;
+
+import java.util.function.Consumer;
+
+public interface ScannableCustomerRespository extends CustomerRespository {
+
+    void scanByExternalId(String fromInclusive, String toExclusive, Consumer<Customer> consumer);
+}
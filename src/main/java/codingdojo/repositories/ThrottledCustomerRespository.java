@@ -0,0 +1,106 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Customer;
+import codingdojo.models.ShoppingList;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+public class ThrottledCustomerRespository implements CustomerRespository {
+    private final CustomerRespository customerRespository;
+    private final Semaphore permits;
+
+    public ThrottledCustomerRespository(CustomerRespository customerRespository, int maxConcurrentCalls) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("maxConcurrentCalls must be positive but was " + maxConcurrentCalls);
+        }
+
+        this.customerRespository = customerRespository;
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+    }
+
+    @Override
+    public Customer update(Customer customer) {
+        return throttled(() -> customerRespository.update(customer));
+    }
+
+    @Override
+    public Customer create(Customer customer) {
+        return throttled(() -> customerRespository.create(customer));
+    }
+
+    @Override
+    public Customer updateShoppingList(ShoppingList consumerShoppingList) {
+        return throttled(() -> customerRespository.updateShoppingList(consumerShoppingList));
+    }
+
+    @Override
+    public void createAll(List<Customer> customers) {
+        throttled(() -> {
+            customerRespository.createAll(customers);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateAll(List<Customer> customers) {
+        throttled(() -> {
+            customerRespository.updateAll(customers);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateShoppingLists(Customer owner, List<ShoppingList> addedShoppingLists) {
+        throttled(() -> {
+            customerRespository.updateShoppingLists(owner, addedShoppingLists);
+            return null;
+        });
+    }
+
+    @Override
+    public Customer findByExternalId(String externalId) {
+        return throttled(() -> customerRespository.findByExternalId(externalId));
+    }
+
+    @Override
+    public Customer findByMasterExternalId(String externalId) {
+        return throttled(() -> customerRespository.findByMasterExternalId(externalId));
+    }
+
+    @Override
+    public Customer findByCompanyNumber(String companyNumber) {
+        return throttled(() -> customerRespository.findByCompanyNumber(companyNumber));
+    }
+
+    @Override
+    public Map<String, Customer> findByExternalIds(Collection<String> externalIds) {
+        return throttled(() -> customerRespository.findByExternalIds(externalIds));
+    }
+
+    @Override
+    public Map<String, Customer> findByMasterExternalIds(Collection<String> externalIds) {
+        return throttled(() -> customerRespository.findByMasterExternalIds(externalIds));
+    }
+
+    @Override
+    public Map<String, Customer> findByCompanyNumbers(Collection<String> companyNumbers) {
+        return throttled(() -> customerRespository.findByCompanyNumbers(companyNumbers));
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    private <T> T throttled(Supplier<T> call) {
+        permits.acquireUninterruptibly();
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
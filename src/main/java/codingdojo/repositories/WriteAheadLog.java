@@ -0,0 +1,149 @@
+package codingdojo.repositories;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+class WriteAheadLog implements AutoCloseable {
+    private static final int HEADER_SIZE = 8;
+
+    private final FileChannel channel;
+    private final int regionSize;
+    private final Object forceLock = new Object();
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long position;
+    private volatile long durablePosition;
+
+    private WriteAheadLog(FileChannel channel, int regionSize) {
+        this.channel = channel;
+        this.regionSize = regionSize;
+    }
+
+    static WriteAheadLog open(Path file, int regionSize, Consumer<ByteBuffer> replay) throws IOException {
+        WriteAheadLog log = new WriteAheadLog(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE), regionSize);
+        log.recover(replay);
+
+        return log;
+    }
+
+    static long read(Path file, long from, Consumer<ByteBuffer> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return scan(channel, from, consumer);
+        }
+    }
+
+    synchronized long append(byte[] payload) {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize + 4 > regionSize) {
+            throw new IllegalArgumentException("Log record of " + payload.length + " bytes exceeds region size " + regionSize);
+        }
+
+        if (position - regionStart + recordSize + 4 > regionSize) {
+            region.force();
+            map(position);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        region.putInt(payload.length);
+        region.putInt((int) crc.getValue());
+        region.put(payload);
+        position += recordSize;
+
+        return position;
+    }
+
+    void sync(long upTo) {
+        if (durablePosition >= upTo) {
+            return;
+        }
+
+        synchronized (forceLock) {
+            if (durablePosition >= upTo) {
+                return;
+            }
+
+            MappedByteBuffer current;
+            long target;
+            synchronized (this) {
+                current = region;
+                target = position;
+            }
+            current.force();
+            durablePosition = target;
+        }
+    }
+
+    synchronized long size() {
+        return position;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        region.force();
+        durablePosition = position;
+        channel.close();
+    }
+
+    private void recover(Consumer<ByteBuffer> replay) throws IOException {
+        long offset = scan(channel, 0, replay);
+
+        position = offset;
+        durablePosition = offset;
+        map(offset);
+
+        ByteBuffer tail = region.duplicate();
+        while (tail.hasRemaining()) {
+            tail.put((byte) 0);
+        }
+        region.force();
+    }
+
+    private static long scan(FileChannel channel, long offset, Consumer<ByteBuffer> consumer) throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        while (offset + HEADER_SIZE <= fileSize) {
+            header.clear();
+            channel.read(header, offset);
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length <= 0 || offset + HEADER_SIZE + length > fileSize) {
+                break;
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, offset + HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            payload.flip();
+            consumer.accept(payload);
+            offset += HEADER_SIZE + length;
+        }
+
+        return offset;
+    }
+
+    private void map(long start) {
+        try {
+            region = channel.map(FileChannel.MapMode.READ_WRITE, start, regionSize);
+            regionStart = start;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map write-ahead log at " + start, e);
+        }
+    }
+}
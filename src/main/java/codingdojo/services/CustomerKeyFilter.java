@@ -0,0 +1,184 @@
+package codingdojo.services;
+
+import codingdojo.models.Customer;
+import codingdojo.models.Fingerprint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+public class CustomerKeyFilter {
+    private static final int FILE_MAGIC = 0x43534b46;
+    private static final long EXTERNAL_ID = 1L;
+    private static final long MASTER_EXTERNAL_ID = 2L;
+    private static final long COMPANY_NUMBER = 3L;
+    private static final int KEYS_PER_CUSTOMER = 3;
+
+    private final int hashCount;
+    private final long bitCount;
+    private volatile AtomicLongArray bits;
+    private volatile AtomicLongArray rebuilding;
+
+    public CustomerKeyFilter(long expectedCustomers, double falsePositiveRate) {
+        if (expectedCustomers <= 0) {
+            throw new IllegalArgumentException("expectedCustomers must be positive but was " + expectedCustomers);
+        }
+        if (falsePositiveRate <= 0.0 || falsePositiveRate >= 1.0) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1 but was " + falsePositiveRate);
+        }
+
+        long expectedKeys = expectedCustomers * KEYS_PER_CUSTOMER;
+        long optimalBits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64);
+        this.bitCount = words * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedKeys * Math.log(2)));
+        this.bits = new AtomicLongArray(words);
+    }
+
+    private CustomerKeyFilter(int hashCount, AtomicLongArray bits) {
+        this.hashCount = hashCount;
+        this.bitCount = bits.length() * 64L;
+        this.bits = bits;
+    }
+
+    public boolean mightContainExternalId(String externalId) {
+        return mightContain(EXTERNAL_ID, externalId);
+    }
+
+    public boolean mightContainMasterExternalId(String externalId) {
+        return mightContain(MASTER_EXTERNAL_ID, externalId);
+    }
+
+    public boolean mightContainCompanyNumber(String companyNumber) {
+        return mightContain(COMPANY_NUMBER, companyNumber);
+    }
+
+    public void put(Customer customer) {
+        add(EXTERNAL_ID, customer.getExternalId());
+        add(MASTER_EXTERNAL_ID, customer.getMasterExternalId());
+        add(COMPANY_NUMBER, customer.getCompanyNumber());
+    }
+
+    public synchronized void rebuild(Consumer<Consumer<Customer>> keyScan) {
+        AtomicLongArray fresh = new AtomicLongArray(bits.length());
+        rebuilding = fresh;
+        try {
+            keyScan.accept(customer -> {
+                set(fresh, EXTERNAL_ID, customer.getExternalId());
+                set(fresh, MASTER_EXTERNAL_ID, customer.getMasterExternalId());
+                set(fresh, COMPANY_NUMBER, customer.getCompanyNumber());
+            });
+        } catch (RuntimeException e) {
+            rebuilding = null;
+            throw e;
+        }
+        bits = fresh;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public void save(Path file) {
+        AtomicLongArray snapshot = bits;
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(hashCount);
+                out.writeInt(snapshot.length());
+                for (int i = 0; i < snapshot.length(); i++) {
+                    out.writeLong(snapshot.get(i));
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save customer key filter to " + file, e);
+        }
+    }
+
+    public static CustomerKeyFilter load(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("Not a customer key filter file");
+            }
+
+            int hashCount = in.readInt();
+            AtomicLongArray bits = new AtomicLongArray(in.readInt());
+            for (int i = 0; i < bits.length(); i++) {
+                bits.set(i, in.readLong());
+            }
+
+            return new CustomerKeyFilter(hashCount, bits);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load customer key filter from " + file, e);
+        }
+    }
+
+    private void add(long kind, String key) {
+        AtomicLongArray current = bits;
+        set(current, kind, key);
+
+        AtomicLongArray pending = rebuilding;
+        if (pending != null && pending != current) {
+            set(pending, kind, key);
+        }
+    }
+
+    private boolean mightContain(long kind, String key) {
+        if (key == null) {
+            return false;
+        }
+
+        AtomicLongArray current = bits;
+        long hash = hash(kind, key);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Integer.toUnsignedLong(first + i * second) % bitCount;
+            if ((current.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void set(AtomicLongArray target, long kind, String key) {
+        if (key == null) {
+            return;
+        }
+
+        long hash = hash(kind, key);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Integer.toUnsignedLong(first + i * second) % bitCount;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long value;
+            do {
+                value = target.get(word);
+                if ((value & mask) != 0) {
+                    break;
+                }
+            } while (!target.compareAndSet(word, value, value | mask));
+        }
+    }
+
+    private static long hash(long kind, String key) {
+        return Fingerprint.finish(Fingerprint.add(Fingerprint.add(Fingerprint.start(), kind), key));
+    }
+}
@@ -1,14 +1,23 @@
 package codingdojo.services;
 
 import codingdojo.models.Customer;
+import codingdojo.models.SyncConflict;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class CustomerMatchesService {
     private final List<Customer> duplicates;
+    private final List<Customer> changedDuplicates = new ArrayList<>(1);
+    private Map<Customer, String> previousMasterExternalIds;
     private String matchTerm;
     private Customer customer;
+    private Customer companyNumberOwner;
+    private SyncConflict conflict;
+    private int lookups;
+    private int duplicatesTouched;
 
     public CustomerMatchesService() {
         duplicates = new ArrayList<>();
@@ -26,6 +35,36 @@ public class CustomerMatchesService {
         duplicates.add(duplicate);
     }
 
+    public void addChangedDuplicate(Customer duplicate) {
+        duplicates.add(duplicate);
+        changedDuplicates.add(duplicate);
+    }
+
+    public boolean isChangedDuplicate(Customer duplicate) {
+        for (Customer changed : changedDuplicates) {
+            if (changed == duplicate) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public void rememberMasterExternalId(Customer customer) {
+        if (previousMasterExternalIds == null) {
+            previousMasterExternalIds = new IdentityHashMap<>(2);
+        }
+        previousMasterExternalIds.putIfAbsent(customer, customer.getMasterExternalId());
+    }
+
+    public String getPreviousMasterExternalId(Customer customer) {
+        if (previousMasterExternalIds != null && previousMasterExternalIds.containsKey(customer)) {
+            return previousMasterExternalIds.get(customer);
+        }
+
+        return customer.getMasterExternalId();
+    }
+
     public List<Customer> getDuplicates() {
         return duplicates;
     }
@@ -38,7 +77,39 @@ public class CustomerMatchesService {
         this.matchTerm = matchTerm;
     }
 
+    public int getDuplicatesTouched() {
+        return duplicatesTouched;
+    }
+
+    public void setDuplicatesTouched(int duplicatesTouched) {
+        this.duplicatesTouched = duplicatesTouched;
+    }
+
+    public SyncConflict getConflict() {
+        return conflict;
+    }
+
+    public void setConflict(SyncConflict conflict) {
+        this.conflict = conflict;
+    }
+
     public void setCustomer(Customer customer) {
         this.customer = customer;
     }
+
+    public Customer getCompanyNumberOwner() {
+        return companyNumberOwner;
+    }
+
+    public void setCompanyNumberOwner(Customer companyNumberOwner) {
+        this.companyNumberOwner = companyNumberOwner;
+    }
+
+    public int getLookups() {
+        return lookups;
+    }
+
+    public void setLookups(int lookups) {
+        this.lookups = lookups;
+    }
 }
@@ -2,44 +2,207 @@ package codingdojo.services;
 
 import codingdojo.models.Customer;
 import codingdojo.models.ShoppingList;
+import codingdojo.repositories.AsyncCustomerRepository;
+import codingdojo.repositories.BlockingCustomerRespository;
 import codingdojo.repositories.CustomerRespository;
+import codingdojo.repositories.PrefetchedCustomerRespository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class CustomerService {
 
     public static final String EXTERNAL_ID = "ExternalId";
     public static final String COMPANY_NUMBER = "CompanyNumber";
     private final CustomerRespository customerRespository;
+    private final AsyncCustomerRepository asyncCustomerRepository;
+    private boolean speculativeLookups;
+    private CustomerKeyFilter keyFilter;
 
     public CustomerService(CustomerRespository customerRespository) {
+        this(customerRespository, AsyncCustomerRepository.fromBlocking(customerRespository));
+    }
+
+    public CustomerService(AsyncCustomerRepository asyncCustomerRepository) {
+        this(new BlockingCustomerRespository(asyncCustomerRepository), asyncCustomerRepository);
+    }
+
+    private CustomerService(CustomerRespository customerRespository, AsyncCustomerRepository asyncCustomerRepository) {
         this.customerRespository = customerRespository;
+        this.asyncCustomerRepository = asyncCustomerRepository;
+    }
+
+    public CustomerService prefetch(Collection<String> externalIds, Collection<String> companyNumbers) {
+        List<String> existingExternalIds = new ArrayList<>(externalIds.size());
+        for (String externalId : externalIds) {
+            if (mayHaveExternalId(externalId) || mayHaveMasterExternalId(externalId)) {
+                existingExternalIds.add(externalId);
+            }
+        }
+
+        List<String> existingCompanyNumbers = new ArrayList<>(companyNumbers.size());
+        for (String companyNumber : companyNumbers) {
+            if (mayHaveCompanyNumber(companyNumber)) {
+                existingCompanyNumbers.add(companyNumber);
+            }
+        }
+
+        CustomerService prefetched = new CustomerService(
+                new PrefetchedCustomerRespository(customerRespository, existingExternalIds, existingCompanyNumbers));
+        prefetched.setKeyFilter(keyFilter);
+
+        return prefetched;
+    }
+
+    public boolean isKnownNew(String externalId, String companyNumber) {
+        if (externalId == null) {
+            return false;
+        }
+
+        PrefetchedCustomerRespository prefetched = customerRespository instanceof PrefetchedCustomerRespository
+                ? (PrefetchedCustomerRespository) customerRespository
+                : null;
+        boolean externalIdAbsent = !mayHaveExternalId(externalId)
+                || prefetched != null && prefetched.isExternalIdAbsent(externalId);
+        boolean companyNumberAbsent = companyNumber == null || !mayHaveCompanyNumber(companyNumber)
+                || prefetched != null && prefetched.isCompanyNumberAbsent(companyNumber);
+
+        return externalIdAbsent && companyNumberAbsent;
+    }
+
+    public CustomerKeyFilter getKeyFilter() {
+        return keyFilter;
+    }
+
+    public void setKeyFilter(CustomerKeyFilter keyFilter) {
+        this.keyFilter = keyFilter;
+    }
+
+    public boolean isSpeculativeLookups() {
+        return speculativeLookups;
+    }
+
+    public void setSpeculativeLookups(boolean speculativeLookups) {
+        this.speculativeLookups = speculativeLookups;
     }
 
     public CustomerMatchesService loadCompanyCustomer(String externalId, String companyNumber) {
+        if (speculativeLookups) {
+            return join(loadCompanyCustomerAsync(externalId, companyNumber));
+        }
+
+        int lookups = 0;
+        Customer matchByExternalId = null;
+        if (mayHaveExternalId(externalId)) {
+            matchByExternalId = this.customerRespository.findByExternalId(externalId);
+            lookups++;
+        }
+
+        if (matchByExternalId != null) {
+            Customer matchByMasterId = null;
+            if (mayHaveMasterExternalId(externalId)) {
+                matchByMasterId = this.customerRespository.findByMasterExternalId(externalId);
+                lookups++;
+            }
+            Customer matchByCompanyNumber = null;
+            if (companyNumber != null && !companyNumber.equals(matchByExternalId.getCompanyNumber())
+                    && mayHaveCompanyNumber(companyNumber)) {
+                matchByCompanyNumber = this.customerRespository.findByCompanyNumber(companyNumber);
+                lookups++;
+            }
+            return matchCompany(matchByExternalId, matchByMasterId, matchByCompanyNumber, lookups);
+        }
+
+        Customer matchByCompanyNumber = null;
+        if (mayHaveCompanyNumber(companyNumber)) {
+            matchByCompanyNumber = this.customerRespository.findByCompanyNumber(companyNumber);
+            lookups++;
+        }
+
+        return matchCompany(null, null, matchByCompanyNumber, lookups);
+    }
+
+    public CompletableFuture<CustomerMatchesService> loadCompanyCustomerAsync(String externalId, String companyNumber) {
+        boolean lookUpExternalId = mayHaveExternalId(externalId);
+        boolean lookUpMasterId = mayHaveMasterExternalId(externalId);
+        boolean lookUpCompanyNumber = mayHaveCompanyNumber(companyNumber);
+        CompletableFuture<Customer> matchByExternalId = lookUpExternalId
+                ? asyncCustomerRepository.findByExternalId(externalId) : CompletableFuture.completedFuture(null);
+        CompletableFuture<Customer> matchByMasterId = lookUpMasterId
+                ? asyncCustomerRepository.findByMasterExternalId(externalId) : CompletableFuture.completedFuture(null);
+        CompletableFuture<Customer> matchByCompanyNumber = lookUpCompanyNumber
+                ? asyncCustomerRepository.findByCompanyNumber(companyNumber) : CompletableFuture.completedFuture(null);
+        int lookups = (lookUpExternalId ? 1 : 0) + (lookUpMasterId ? 1 : 0) + (lookUpCompanyNumber ? 1 : 0);
+
+        return CompletableFuture.allOf(matchByExternalId, matchByMasterId, matchByCompanyNumber)
+                .thenApply(completed -> matchCompany(matchByExternalId.join(), matchByMasterId.join(), matchByCompanyNumber.join(), lookups));
+    }
+
+    public CustomerMatchesService loadPersonCustomer(String externalId) {
+        if (!mayHaveExternalId(externalId)) {
+            return matchPerson(null, 0);
+        }
+
+        return matchPerson(this.customerRespository.findByExternalId(externalId), 1);
+    }
+
+    public CompletableFuture<CustomerMatchesService> loadPersonCustomerAsync(String externalId) {
+        if (!mayHaveExternalId(externalId)) {
+            return CompletableFuture.completedFuture(matchPerson(null, 0));
+        }
+
+        return asyncCustomerRepository.findByExternalId(externalId).thenApply(customer -> matchPerson(customer, 1));
+    }
+
+    private boolean mayHaveExternalId(String externalId) {
+        return keyFilter == null || keyFilter.mightContainExternalId(externalId);
+    }
+
+    private boolean mayHaveMasterExternalId(String externalId) {
+        return keyFilter == null || keyFilter.mightContainMasterExternalId(externalId);
+    }
+
+    private boolean mayHaveCompanyNumber(String companyNumber) {
+        return keyFilter == null || keyFilter.mightContainCompanyNumber(companyNumber);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private CustomerMatchesService matchCompany(Customer matchByExternalId, Customer matchByMasterId, Customer matchByCompanyNumber, int lookups) {
         CustomerMatchesService matches = new CustomerMatchesService();
-        Customer matchByExternalId = this.customerRespository.findByExternalId(externalId);
+        matches.setLookups(lookups);
 
         if (matchByExternalId != null) {
             matches.setCustomer(matchByExternalId);
             matches.setMatchTerm(EXTERNAL_ID);
-            Customer matchByMasterId = this.customerRespository.findByMasterExternalId(externalId);
             if (matchByMasterId != null) {
                 matches.addDuplicate(matchByMasterId);
             }
-        } else {
-            Customer matchByCompanyNumber = this.customerRespository.findByCompanyNumber(companyNumber);
-            if (matchByCompanyNumber != null) {
-                matches.setCustomer(matchByCompanyNumber);
-                matches.setMatchTerm(COMPANY_NUMBER);
-            }
+            matches.setCompanyNumberOwner(matchByCompanyNumber);
+        } else if (matchByCompanyNumber != null) {
+            matches.setCustomer(matchByCompanyNumber);
+            matches.setMatchTerm(COMPANY_NUMBER);
         }
 
         return matches;
     }
 
-    public CustomerMatchesService loadPersonCustomer(String externalId) {
+    private CustomerMatchesService matchPerson(Customer matchByPersonalNumber, int lookups) {
         CustomerMatchesService matches = new CustomerMatchesService();
-        Customer matchByPersonalNumber = this.customerRespository.findByExternalId(externalId);
         matches.setCustomer(matchByPersonalNumber);
+        matches.setLookups(lookups);
 
         if (matchByPersonalNumber != null) {
             matches.setMatchTerm(EXTERNAL_ID);
@@ -48,6 +211,10 @@ public class CustomerService {
         return matches;
     }
 
+    public UnitOfWork beginUnitOfWork() {
+        return new UnitOfWork(customerRespository, asyncCustomerRepository, keyFilter);
+    }
+
     public Customer updateCustomerRecord(Customer customer) {
         return customerRespository.update(customer);
     }
@@ -63,4 +230,15 @@ public class CustomerService {
         return customerRespository.update(customer);
     }
 
+    public Customer updateShoppingLists(Customer customer, List<ShoppingList> consumerShoppingLists) {
+        List<ShoppingList> addedShoppingLists = customer.mergeShoppingLists(consumerShoppingLists);
+        if (addedShoppingLists.isEmpty()) {
+            return customer;
+        }
+
+        customerRespository.updateShoppingLists(customer, addedShoppingLists);
+
+        return customer;
+    }
+
 }
@@ -0,0 +1,102 @@
+package codingdojo.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FingerprintStore {
+    private static final int FILE_MAGIC = 0x43534650;
+
+    private final int maxEntries;
+    private final Map<String, Long> fingerprints;
+
+    public FingerprintStore(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive but was " + maxEntries);
+        }
+
+        this.maxEntries = maxEntries;
+        this.fingerprints = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > FingerprintStore.this.maxEntries;
+            }
+        };
+    }
+
+    public synchronized boolean matches(String externalId, long fingerprint) {
+        Long stored = fingerprints.get(externalId);
+
+        return stored != null && stored == fingerprint;
+    }
+
+    public synchronized void put(String externalId, long fingerprint) {
+        fingerprints.put(externalId, fingerprint);
+    }
+
+    public synchronized void remove(String externalId) {
+        fingerprints.remove(externalId);
+    }
+
+    public synchronized int size() {
+        return fingerprints.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void save(Path file) {
+        List<Map.Entry<String, Long>> entries;
+        synchronized (this) {
+            entries = new ArrayList<>(fingerprints.entrySet());
+        }
+
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Long> entry : entries) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue());
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save fingerprints to " + file, e);
+        }
+    }
+
+    public static FingerprintStore load(Path file, int maxEntries) {
+        FingerprintStore store = new FingerprintStore(maxEntries);
+        if (!Files.exists(file)) {
+            return store;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("Not a fingerprint file");
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                store.put(in.readUTF(), in.readLong());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load fingerprints from " + file, e);
+        }
+
+        return store;
+    }
+}
@@ -0,0 +1,90 @@
+package codingdojo.services;
+
+import codingdojo.types.ConflictType;
+import codingdojo.types.SyncOutcome;
+import codingdojo.types.SyncPhase;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class HistogramSyncMetrics implements SyncMetrics {
+    private final LatencyHistogram[] phases = new LatencyHistogram[SyncPhase.values().length];
+    private final LongAdder[] outcomes = new LongAdder[SyncOutcome.values().length];
+    private final LongAdder[] conflicts = new LongAdder[ConflictType.values().length];
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LatencyHistogram repositoryCalls = new LatencyHistogram();
+
+    public HistogramSyncMetrics() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = new LongAdder();
+        }
+        for (int i = 0; i < conflicts.length; i++) {
+            conflicts[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void recordPhase(SyncPhase phase, long nanos) {
+        phases[phase.ordinal()].record(nanos);
+    }
+
+    @Override
+    public void recordOutcome(SyncOutcome outcome) {
+        outcomes[outcome.ordinal()].increment();
+    }
+
+    @Override
+    public void recordConflict(ConflictType conflictType) {
+        outcomes[SyncOutcome.CONFLICT.ordinal()].increment();
+        if (conflictType != null) {
+            conflicts[conflictType.ordinal()].increment();
+        }
+    }
+
+    @Override
+    public void recordDuplicates(int duplicates) {
+        this.duplicates.add(duplicates);
+    }
+
+    @Override
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    @Override
+    public void recordRepositoryCalls(int repositoryCalls) {
+        this.repositoryCalls.record(repositoryCalls);
+    }
+
+    public LatencyHistogram getPhase(SyncPhase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    public long getOutcomeCount(SyncOutcome outcome) {
+        return outcomes[outcome.ordinal()].sum();
+    }
+
+    public long getConflictCount(ConflictType conflictType) {
+        return conflicts[conflictType.ordinal()].sum();
+    }
+
+    public long getDuplicatesHandled() {
+        return duplicates.sum();
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    public LatencyHistogram getRepositoryCallsPerSync() {
+        return repositoryCalls;
+    }
+}
@@ -0,0 +1,32 @@
+package codingdojo.services;
+
+import codingdojo.types.ConflictType;
+import codingdojo.types.SyncOutcome;
+import codingdojo.types.SyncPhase;
+
+public interface SyncMetrics {
+    SyncMetrics NOOP = new SyncMetrics() {
+    };
+
+    default long nanoTime() {
+        return 0L;
+    }
+
+    default void recordPhase(SyncPhase phase, long nanos) {
+    }
+
+    default void recordOutcome(SyncOutcome outcome) {
+    }
+
+    default void recordConflict(ConflictType conflictType) {
+    }
+
+    default void recordDuplicates(int duplicates) {
+    }
+
+    default void recordRetry() {
+    }
+
+    default void recordRepositoryCalls(int repositoryCalls) {
+    }
+}
@@ -0,0 +1,299 @@
+package codingdojo.services;
+
+import codingdojo.exceptions.ConflictException;
+import codingdojo.models.Customer;
+import codingdojo.models.ShoppingList;
+import codingdojo.models.SyncConflict;
+import codingdojo.repositories.AsyncCustomerRepository;
+import codingdojo.repositories.CustomerRespository;
+import codingdojo.types.SyncPhase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class UnitOfWork {
+    private final CustomerRespository customerRespository;
+    private final AsyncCustomerRepository asyncCustomerRepository;
+    private final CustomerKeyFilter keyFilter;
+    private final List<Customer> newCustomers = new ArrayList<>();
+    private final List<Customer> dirtyCustomers = new ArrayList<>();
+    private final List<Customer> shoppingListOwners = new ArrayList<>();
+    private final List<List<ShoppingList>> newShoppingLists = new ArrayList<>();
+    private int repositoryCalls;
+
+    public UnitOfWork(CustomerRespository customerRespository, AsyncCustomerRepository asyncCustomerRepository) {
+        this(customerRespository, asyncCustomerRepository, null);
+    }
+
+    public UnitOfWork(CustomerRespository customerRespository, AsyncCustomerRepository asyncCustomerRepository,
+                      CustomerKeyFilter keyFilter) {
+        this.customerRespository = customerRespository;
+        this.asyncCustomerRepository = asyncCustomerRepository;
+        this.keyFilter = keyFilter;
+    }
+
+    public void registerNew(Customer customer) {
+        if (!containsRecord(newCustomers, customer)) {
+            dirtyCustomers.removeIf(registered -> isSameRecord(registered, customer));
+            newCustomers.add(customer);
+        }
+    }
+
+    public void registerDirty(Customer customer) {
+        if (!containsRecord(newCustomers, customer) && !containsRecord(dirtyCustomers, customer)) {
+            dirtyCustomers.add(customer);
+        }
+    }
+
+    public void registerShoppingList(Customer customer, ShoppingList consumerShoppingList) {
+        customer.addShoppingList(consumerShoppingList);
+        shoppingListsOf(customer).add(consumerShoppingList);
+        registerDirty(customer);
+    }
+
+    public void registerShoppingLists(Customer customer, List<ShoppingList> addedShoppingLists) {
+        shoppingListsOf(customer).addAll(addedShoppingLists);
+        registerDirty(customer);
+    }
+
+    public void registerDuplicate(Customer duplicate) {
+        if (duplicate.getInternalId() == null) {
+            registerNew(duplicate);
+        } else {
+            registerDirty(duplicate);
+        }
+    }
+
+    public boolean hasChanges() {
+        return !newCustomers.isEmpty() || !dirtyCustomers.isEmpty() || !newShoppingLists.isEmpty();
+    }
+
+    public int getRepositoryCalls() {
+        return repositoryCalls;
+    }
+
+    public void commit() {
+        commit(SyncMetrics.NOOP);
+    }
+
+    public void commit(SyncMetrics metrics) {
+        long started = metrics.nanoTime();
+        List<String> claimedCompanyNumbers = claimedCompanyNumbers(newCustomers, dirtyCustomers);
+        if (!claimedCompanyNumbers.isEmpty()) {
+            repositoryCalls++;
+            checkCompanyNumbersFree(newCustomers, dirtyCustomers, customerRespository.findByCompanyNumbers(claimedCompanyNumbers));
+        }
+        publishKeys();
+        if (dirtyCustomers.size() == 1) {
+            adoptVersion(dirtyCustomers.get(0), customerRespository.update(dirtyCustomers.get(0)));
+        } else if (!dirtyCustomers.isEmpty()) {
+            customerRespository.updateAll(new ArrayList<>(dirtyCustomers));
+        }
+
+        if (newCustomers.size() == 1) {
+            adoptIdentity(newCustomers.get(0), customerRespository.create(newCustomers.get(0)));
+        } else if (!newCustomers.isEmpty()) {
+            customerRespository.createAll(new ArrayList<>(newCustomers));
+            checkCreated(newCustomers);
+        }
+        publishKeys();
+        long written = metrics.nanoTime();
+        metrics.recordPhase(SyncPhase.WRITE, written - started);
+
+        for (int i = 0; i < shoppingListOwners.size(); i++) {
+            customerRespository.updateShoppingLists(shoppingListOwners.get(i), newShoppingLists.get(i));
+        }
+        metrics.recordPhase(SyncPhase.SHOPPING_LISTS, metrics.nanoTime() - written);
+
+        repositoryCalls += batches(newCustomers) + batches(dirtyCustomers) + shoppingListOwners.size();
+        clear();
+    }
+
+    public CompletableFuture<Void> commitAsync() {
+        return commitAsync(SyncMetrics.NOOP);
+    }
+
+    public CompletableFuture<Void> commitAsync(SyncMetrics metrics) {
+        long started = metrics.nanoTime();
+        publishKeys();
+        List<Customer> created = new ArrayList<>(newCustomers);
+        List<Customer> updated = new ArrayList<>(dirtyCustomers);
+        List<Customer> owners = new ArrayList<>(shoppingListOwners);
+        List<List<ShoppingList>> shoppingLists = new ArrayList<>(newShoppingLists);
+        repositoryCalls += batches(created) + batches(updated) + owners.size();
+        clear();
+
+        return checkCompanyNumbersFreeAsync(created, updated).thenCompose(checked -> updateAsync(updated)).thenCompose(completed -> createAsync(created)).thenCompose(completed -> {
+            publishKeys(created);
+            publishKeys(updated);
+            long written = metrics.nanoTime();
+            metrics.recordPhase(SyncPhase.WRITE, written - started);
+            List<CompletableFuture<Void>> shoppingListWrites = new ArrayList<>(owners.size());
+            for (int i = 0; i < owners.size(); i++) {
+                shoppingListWrites.add(asyncCustomerRepository.updateShoppingLists(owners.get(i), shoppingLists.get(i)));
+            }
+
+            return CompletableFuture.allOf(shoppingListWrites.toArray(new CompletableFuture<?>[0]))
+                    .thenRun(() -> metrics.recordPhase(SyncPhase.SHOPPING_LISTS, metrics.nanoTime() - written));
+        });
+    }
+
+    private CompletableFuture<?> checkCompanyNumbersFreeAsync(List<Customer> created, List<Customer> updated) {
+        List<String> claimedCompanyNumbers = claimedCompanyNumbers(created, updated);
+        if (claimedCompanyNumbers.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        repositoryCalls++;
+        Map<String, CompletableFuture<Customer>> lookups = new HashMap<>();
+        for (String companyNumber : claimedCompanyNumbers) {
+            lookups.put(companyNumber, asyncCustomerRepository.findByCompanyNumber(companyNumber));
+        }
+
+        return CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+            Map<String, Customer> holders = new HashMap<>();
+            lookups.forEach((companyNumber, lookup) -> {
+                if (lookup.join() != null) {
+                    holders.put(companyNumber, lookup.join());
+                }
+            });
+            checkCompanyNumbersFree(created, updated, holders);
+        });
+    }
+
+    private CompletableFuture<?> updateAsync(List<Customer> updated) {
+        if (updated.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (updated.size() == 1) {
+            return asyncCustomerRepository.update(updated.get(0)).thenAccept(written -> adoptVersion(updated.get(0), written));
+        }
+
+        return asyncCustomerRepository.updateAll(updated);
+    }
+
+    private CompletableFuture<?> createAsync(List<Customer> created) {
+        if (created.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (created.size() == 1) {
+            return asyncCustomerRepository.create(created.get(0)).thenAccept(written -> adoptIdentity(created.get(0), written));
+        }
+
+        return asyncCustomerRepository.createAll(created).thenRun(() -> checkCreated(created));
+    }
+
+    private List<ShoppingList> shoppingListsOf(Customer customer) {
+        for (int i = 0; i < shoppingListOwners.size(); i++) {
+            if (isSameRecord(shoppingListOwners.get(i), customer)) {
+                return newShoppingLists.get(i);
+            }
+        }
+
+        List<ShoppingList> shoppingLists = new ArrayList<>();
+        shoppingListOwners.add(customer);
+        newShoppingLists.add(shoppingLists);
+
+        return shoppingLists;
+    }
+
+    private void clear() {
+        newCustomers.clear();
+        dirtyCustomers.clear();
+        shoppingListOwners.clear();
+        newShoppingLists.clear();
+    }
+
+    private void publishKeys() {
+        publishKeys(newCustomers);
+        publishKeys(dirtyCustomers);
+    }
+
+    private void publishKeys(List<Customer> customers) {
+        if (keyFilter != null) {
+            for (Customer customer : customers) {
+                keyFilter.put(customer);
+            }
+        }
+    }
+
+    private static void adoptVersion(Customer registered, Customer written) {
+        if (written != null && written != registered) {
+            registered.setVersion(written.getVersion());
+        }
+    }
+
+    private static void adoptIdentity(Customer registered, Customer written) {
+        if (written != null && written != registered) {
+            registered.setInternalId(written.getInternalId());
+            registered.setVersion(written.getVersion());
+        }
+    }
+
+    private static void checkCreated(List<Customer> created) {
+        for (Customer customer : created) {
+            if (customer.getInternalId() == null) {
+                throw new IllegalStateException("createAll must assign the internalId of every created customer");
+            }
+        }
+    }
+
+    private static List<String> claimedCompanyNumbers(List<Customer> created, List<Customer> updated) {
+        List<String> companyNumbers = new ArrayList<>();
+        if (created.isEmpty() || updated.isEmpty()) {
+            return companyNumbers;
+        }
+
+        for (Customer customer : created) {
+            if (customer.getCompanyNumber() != null) {
+                companyNumbers.add(customer.getCompanyNumber());
+            }
+        }
+
+        return companyNumbers;
+    }
+
+    private static void checkCompanyNumbersFree(List<Customer> created, List<Customer> updated, Map<String, Customer> holders) {
+        for (Customer customer : created) {
+            Customer holder = customer.getCompanyNumber() == null ? null : holders.get(customer.getCompanyNumber());
+            if (holder != null && !isReleased(holder, customer.getCompanyNumber(), updated)) {
+                throw new ConflictException(SyncConflict.companyNumberTaken(
+                        customer.getCompanyNumber(), customer.getExternalId(), holder.getExternalId()));
+            }
+        }
+    }
+
+    private static boolean isReleased(Customer holder, String companyNumber, List<Customer> updated) {
+        for (Customer customer : updated) {
+            if (isSameRecord(customer, holder)) {
+                return !companyNumber.equals(customer.getCompanyNumber());
+            }
+        }
+
+        return false;
+    }
+
+    private static int batches(List<Customer> customers) {
+        return customers.isEmpty() ? 0 : 1;
+    }
+
+    private static boolean containsRecord(List<Customer> customers, Customer customer) {
+        for (Customer registered : customers) {
+            if (isSameRecord(registered, customer)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isSameRecord(Customer registered, Customer customer) {
+        return registered == customer
+                || registered.getInternalId() != null && registered.getInternalId().equals(customer.getInternalId());
+    }
+}
@@ -0,0 +1,5 @@
+package codingdojo.types;
+
+public enum ChangeType {
+    CREATED, UPDATED, DUPLICATE_DEMOTED
+}
@@ -0,0 +1,5 @@
+package codingdojo.types;
+
+public enum ConflictType {
+    NOT_A_COMPANY, COMPANY_NUMBER_TAKEN, NOT_A_PERSON, CONCURRENT_UPDATE
+}
@@ -0,0 +1,5 @@
+package codingdojo.types;
+
+public enum CustomerField {
+    EXTERNAL_ID, MASTER_EXTERNAL_ID, NAME, CUSTOMER_TYPE, COMPANY_NUMBER, BONUS_POINTS_BALANCE, PREFERRED_STORE, ADDRESS, SHOPPING_LISTS
+}
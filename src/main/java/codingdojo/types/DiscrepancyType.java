@@ -0,0 +1,5 @@
+package codingdojo.types;
+
+public enum DiscrepancyType {
+    MISSING, EXTRA, DIVERGENT
+}
@@ -0,0 +1,5 @@
+package codingdojo.types;
+
+public enum SyncOutcome {
+    CREATED, UPDATED, UNCHANGED, CONFLICT
+}
@@ -0,0 +1,5 @@
+package codingdojo.types;
+
+public enum SyncPhase {
+    LOAD, POPULATE, WRITE, SHOPPING_LISTS, DUPLICATES
+}
@@ -1,19 +1,36 @@
 package codingdojo;
 
 import codingdojo.models.Address;
+import codingdojo.models.ChangeEvent;
 import codingdojo.models.Customer;
 import codingdojo.models.ExternalCustomer;
 import codingdojo.models.ShoppingList;
+import codingdojo.exceptions.ConcurrentUpdateException;
 import codingdojo.exceptions.ConflictException;
+import codingdojo.models.SyncResult;
 import codingdojo.repositories.CustomerRespository;
+import codingdojo.repositories.InMemoryCustomerRespository;
+import codingdojo.services.CustomerKeyFilter;
+import codingdojo.services.CustomerService;
+import codingdojo.services.FingerprintStore;
+import codingdojo.services.HistogramSyncMetrics;
+import codingdojo.types.ChangeType;
+import codingdojo.types.ConflictType;
+import codingdojo.types.CustomerField;
 import codingdojo.types.CustomerType;
+import codingdojo.types.SyncOutcome;
+import codingdojo.types.SyncPhase;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -74,16 +91,17 @@ public class CustomerSyncTest {
 
         // ASSERT
         ArgumentCaptor<Customer> argument = ArgumentCaptor.forClass(Customer.class);
-        verify(db, atLeastOnce()).update(argument.capture());
-        Customer updatedCustomer = argument.getValue();
+        verify(db, times(1)).create(argument.capture());
+        verify(db, never()).update(any(Customer.class));
+        Customer createdCustomer = argument.getValue();
 
         assertTrue(created);
-        assertEquals(externalCustomer.getExternalId(), updatedCustomer.getExternalId());
-        assertNull(updatedCustomer.getMasterExternalId());
-        assertEquals(externalCustomer.getCompanyNumber(), updatedCustomer.getCompanyNumber());
-        assertEquals(externalCustomer.getShoppingLists(), updatedCustomer.getShoppingLists());
-        assertEquals(CustomerType.COMPANY, updatedCustomer.getCustomerType());
-        assertNull(updatedCustomer.getPreferredStore());
+        assertEquals(externalCustomer.getExternalId(), createdCustomer.getExternalId());
+        assertEquals(externalCustomer.getExternalId(), createdCustomer.getMasterExternalId());
+        assertEquals(externalCustomer.getCompanyNumber(), createdCustomer.getCompanyNumber());
+        assertEquals(externalCustomer.getShoppingLists(), createdCustomer.getShoppingLists());
+        assertEquals(CustomerType.COMPANY, createdCustomer.getCustomerType());
+        assertNull(createdCustomer.getPreferredStore());
     }
 
     @Test
@@ -140,16 +158,36 @@ public class CustomerSyncTest {
 
         // ASSERT
         ArgumentCaptor<Customer> argument = ArgumentCaptor.forClass(Customer.class);
-        verify(db, atLeastOnce()).update(argument.capture());
-        when(db.update(any(Customer.class))).thenReturn(customer);
-        Customer updatedCustomer = argument.getValue();
+        verify(db, times(1)).create(argument.capture());
+        verify(db, never()).update(any(Customer.class));
+        Customer createdCustomer = argument.getValue();
 
         assertTrue(created);
-        assertEquals(externalCustomer.getExternalId(), updatedCustomer.getExternalId());
-        assertNull(updatedCustomer.getMasterExternalId());
-        assertEquals(externalCustomer.getShoppingLists(), updatedCustomer.getShoppingLists());
-        assertEquals(CustomerType.PERSON, updatedCustomer.getCustomerType());
-        assertNull(updatedCustomer.getPreferredStore());
+        assertEquals(externalCustomer.getExternalId(), createdCustomer.getExternalId());
+        assertEquals(externalCustomer.getExternalId(), createdCustomer.getMasterExternalId());
+        assertEquals(externalCustomer.getShoppingLists(), createdCustomer.getShoppingLists());
+        assertEquals(CustomerType.PERSON, createdCustomer.getCustomerType());
+        assertNull(createdCustomer.getPreferredStore());
+    }
+
+    @Test
+    public void testSyncNewPersonSkipsLookupRuledOutByKeyFilter() {
+        ExternalCustomer externalCustomer = createExternalPerson();
+        externalCustomer.setExternalId("12345");
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        CustomerKeyFilter keyFilter = new CustomerKeyFilter(1_000, 0.01);
+        CustomerSync sut = new CustomerSync(db);
+        sut.setKeyFilter(keyFilter);
+
+        // ACT
+        boolean created = sut.syncExternalCustomer(externalCustomer);
+
+        // ASSERT
+        assertTrue(created);
+        verify(db, never()).findByExternalId(anyString());
+        verify(db, times(1)).create(any(Customer.class));
+        assertTrue(keyFilter.mightContainExternalId("12345"));
     }
 
     @Test
@@ -183,6 +221,121 @@ public class CustomerSyncTest {
         assertEquals(externalCustomer.getShoppingLists().get(0).getProducts(), updatedCustomer.getShoppingLists().get(1).getProducts());
     }
 
+    @Test
+    public void testSyncWritesCustomerOnceForManyShoppingLists() {
+        String externalId = "12345";
+
+        ExternalCustomer externalCustomer = createExternalPerson();
+        externalCustomer.setExternalId(externalId);
+        externalCustomer.setShoppingLists(Arrays.asList(new ShoppingList("lipstick"), new ShoppingList("blusher"), new ShoppingList("eyeliner")));
+
+        Customer customer = createPerson(externalCustomer);
+        customer.setExternalId(externalId);
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalId(externalId)).thenReturn(customer);
+        when(db.update(any(Customer.class))).thenReturn(customer);
+        CustomerSync sut = new CustomerSync(db);
+
+        // ACT
+        sut.syncExternalCustomer(externalCustomer);
+
+        // ASSERT
+        verify(db, times(1)).update(customer);
+        verify(db, times(1)).updateShoppingLists(customer, externalCustomer.getShoppingLists());
+        verify(db, never()).updateShoppingList(any(ShoppingList.class));
+        assertEquals(externalCustomer.getShoppingLists(), customer.getShoppingLists());
+    }
+
+    @Test
+    public void testSyncMergesOnlyNewShoppingLists() {
+        String externalId = "12345";
+        ShoppingList lipstick = new ShoppingList("lipstick");
+        ShoppingList blusher = new ShoppingList("blusher");
+
+        ExternalCustomer externalCustomer = createExternalPerson();
+        externalCustomer.setExternalId(externalId);
+        externalCustomer.setShoppingLists(Arrays.asList(new ShoppingList("lipstick"), blusher, new ShoppingList("blusher")));
+
+        Customer customer = createPerson(externalCustomer);
+        customer.setExternalId(externalId);
+        customer.setShoppingLists(Collections.singletonList(lipstick));
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalId(externalId)).thenReturn(customer);
+        CustomerSync sut = new CustomerSync(db);
+
+        // ACT
+        sut.syncExternalCustomer(externalCustomer);
+        sut.syncExternalCustomer(externalCustomer);
+
+        // ASSERT
+        verify(db, times(1)).updateShoppingLists(any(Customer.class), anyList());
+        verify(db, times(1)).updateShoppingLists(customer, Collections.singletonList(blusher));
+        assertEquals(Arrays.asList(lipstick, blusher), customer.getShoppingLists());
+    }
+
+    @Test
+    public void testSyncUnchangedPersonSkipsWrites() {
+        String externalId = "12345";
+
+        ExternalCustomer externalCustomer = createExternalPerson();
+        externalCustomer.setExternalId(externalId);
+        externalCustomer.setBonusPointsBalance(100);
+
+        Customer customer = createPerson(externalCustomer);
+        customer.setExternalId(externalId);
+        customer.setMasterExternalId(externalId);
+        customer.setName(externalCustomer.getName());
+        customer.setAddress(externalCustomer.getPostalAddress());
+        customer.setBonusPointsBalance(100);
+        customer.setShoppingLists(externalCustomer.getShoppingLists());
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalId(externalId)).thenReturn(customer);
+        CustomerSync sut = new CustomerSync(db);
+
+        // ACT
+        SyncResult unchanged = sut.sync(externalCustomer);
+        externalCustomer.setBonusPointsBalance(150);
+        SyncResult updated = sut.sync(externalCustomer);
+
+        // ASSERT
+        assertEquals(SyncOutcome.UNCHANGED, unchanged.getOutcome());
+        assertTrue(unchanged.getChangedFields().isEmpty());
+        assertEquals(SyncOutcome.UPDATED, updated.getOutcome());
+        assertEquals(EnumSet.of(CustomerField.BONUS_POINTS_BALANCE), updated.getChangedFields());
+        verify(db, times(1)).update(customer);
+        verify(db, never()).create(any(Customer.class));
+        verify(db, never()).updateShoppingLists(any(Customer.class), anyList());
+    }
+
+    @Test
+    public void testSyncSkipsRepeatedPayloadWithFingerprintStore() {
+        String externalId = "12345";
+
+        ExternalCustomer externalCustomer = createExternalPerson();
+        externalCustomer.setExternalId(externalId);
+
+        Customer customer = createPerson(externalCustomer);
+        customer.setExternalId(externalId);
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalId(externalId)).thenReturn(customer);
+        CustomerSync sut = new CustomerSync(db);
+        sut.setFingerprintStore(new FingerprintStore(100));
+
+        // ACT
+        SyncResult first = sut.sync(externalCustomer);
+        SyncResult second = sut.sync(externalCustomer);
+
+        // ASSERT
+        assertEquals(SyncOutcome.UPDATED, first.getOutcome());
+        assertEquals(SyncOutcome.UNCHANGED, second.getOutcome());
+        verify(db, times(1)).findByExternalId(externalId);
+        verify(db, times(1)).update(customer);
+    }
+
     @Test
     public void testSyncPersonBonusPointsByExternalId() {
         String externalId = "12345";
@@ -213,6 +366,320 @@ public class CustomerSyncTest {
         assertEquals(bonusPointsBalance, updatedCustomer.getBonusPointsBalance());
     }
 
+    @Test
+    public void testSyncCompanyBatchesDuplicateWrites() {
+        String externalId = "12345";
+
+        ExternalCustomer externalCustomer = createExternalCompany();
+        externalCustomer.setExternalId(externalId);
+
+        Customer otherCompany = createCustomerWithSameCompanyAs(externalCustomer);
+        otherCompany.setExternalId(externalId);
+        otherCompany.setMasterExternalId(externalId);
+        otherCompany.setCompanyNumber("556677-8899");
+        otherCompany.setName(externalCustomer.getName());
+        Customer duplicate = createCustomerWithSameCompanyAs(externalCustomer);
+        duplicate.setInternalId("45436");
+        duplicate.setName("Acme Ltd.");
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalId(externalId)).thenReturn(otherCompany);
+        when(db.findByMasterExternalId(externalId)).thenReturn(duplicate);
+        CustomerSync sut = new CustomerSync(db);
+
+        // ACT
+        SyncResult result = sut.sync(externalCustomer);
+
+        // ASSERT
+        assertTrue(result.isCreated());
+        assertEquals(2, result.getDuplicatesTouched());
+        assertNull(otherCompany.getMasterExternalId());
+        assertEquals(externalCustomer.getName(), duplicate.getName());
+        verify(db, times(1)).create(any(Customer.class));
+        verify(db, times(1)).updateAll(Arrays.asList(duplicate, otherCompany));
+        verify(db, never()).update(any(Customer.class));
+    }
+
+    @Test
+    public void testSyncPublishesChangeEvents() {
+        String externalId = "12345";
+
+        ExternalCustomer externalCustomer = createExternalCompany();
+        externalCustomer.setExternalId(externalId);
+
+        Customer otherCompany = createCustomerWithSameCompanyAs(externalCustomer);
+        otherCompany.setExternalId(externalId);
+        otherCompany.setMasterExternalId(externalId);
+        otherCompany.setCompanyNumber("556677-8899");
+        otherCompany.setName(externalCustomer.getName());
+        Customer duplicate = createCustomerWithSameCompanyAs(externalCustomer);
+        duplicate.setInternalId("45436");
+        duplicate.setName("Acme Ltd.");
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalId(externalId)).thenReturn(otherCompany);
+        when(db.findByMasterExternalId(externalId)).thenReturn(duplicate);
+        doAnswer(invocation -> {
+            ((Customer) invocation.getArguments()[0]).setInternalId("45437");
+            return null;
+        }).when(db).create(any(Customer.class));
+        List<ChangeEvent> changeEvents = new ArrayList<>();
+        CustomerSync sut = new CustomerSync(db);
+        sut.setChangeSink(changeEvents::addAll);
+
+        // ACT
+        sut.syncExternalCustomer(externalCustomer);
+
+        // ASSERT
+        assertEquals(Arrays.asList(
+                new ChangeEvent(ChangeType.CREATED, "45437", externalId,
+                        EnumSet.of(CustomerField.EXTERNAL_ID, CustomerField.MASTER_EXTERNAL_ID, CustomerField.NAME,
+                                CustomerField.COMPANY_NUMBER, CustomerField.CUSTOMER_TYPE, CustomerField.ADDRESS,
+                                CustomerField.SHOPPING_LISTS),
+                        null, externalId),
+                new ChangeEvent(ChangeType.UPDATED, "45436", null, EnumSet.of(CustomerField.NAME), null, null),
+                new ChangeEvent(ChangeType.DUPLICATE_DEMOTED, "45435", externalId, EnumSet.of(CustomerField.MASTER_EXTERNAL_ID),
+                        externalId, null)), changeEvents);
+    }
+
+    @Test
+    public void testSyncCompanyDoesNotWriteMainCustomerTwice() {
+        String externalId = "12345";
+
+        ExternalCustomer externalCustomer = createExternalCompany();
+        externalCustomer.setExternalId(externalId);
+
+        Customer customer = createCustomerWithSameCompanyAs(externalCustomer);
+        customer.setExternalId(externalId);
+        customer.setMasterExternalId(externalId);
+        customer.setName("Acme Ltd.");
+        Customer sameRow = createCustomerWithSameCompanyAs(externalCustomer);
+        sameRow.setExternalId(externalId);
+        sameRow.setMasterExternalId(externalId);
+        sameRow.setName("Acme Ltd.");
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalId(externalId)).thenReturn(customer);
+        when(db.findByMasterExternalId(externalId)).thenReturn(sameRow);
+        CustomerSync sut = new CustomerSync(db);
+
+        // ACT
+        SyncResult result = sut.sync(externalCustomer);
+
+        // ASSERT
+        assertEquals(0, result.getDuplicatesTouched());
+        assertEquals(externalCustomer.getName(), customer.getName());
+        verify(db, times(1)).update(customer);
+        verify(db, never()).updateAll(anyList());
+    }
+
+    @Test
+    public void testSyncKeepsInternalIdReturnedByCreate() {
+        ExternalCustomer externalCustomer = createExternalPerson();
+        Customer stored = createPerson(externalCustomer);
+        stored.setInternalId("45437");
+        stored.setVersion(1);
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.create(any(Customer.class))).thenReturn(stored);
+        List<ChangeEvent> changeEvents = new ArrayList<>();
+        CustomerSync sut = new CustomerSync(db);
+        sut.setChangeSink(changeEvents::addAll);
+
+        // ACT
+        sut.syncExternalCustomer(externalCustomer);
+
+        // ASSERT
+        assertEquals(1, changeEvents.size());
+        assertEquals("45437", changeEvents.get(0).getInternalId());
+    }
+
+    @Test
+    public void testSyncCompanySkipsDuplicateWithSameName() {
+        String externalId = "12345";
+
+        ExternalCustomer externalCustomer = createExternalCompany();
+        externalCustomer.setExternalId(externalId);
+
+        Customer customer = createCustomerWithSameCompanyAs(externalCustomer);
+        customer.setExternalId(externalId);
+        Customer duplicate = createCustomerWithSameCompanyAs(externalCustomer);
+        duplicate.setInternalId("45436");
+        duplicate.setName(externalCustomer.getName());
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalId(externalId)).thenReturn(customer);
+        when(db.findByMasterExternalId(externalId)).thenReturn(duplicate);
+        CustomerSync sut = new CustomerSync(db);
+
+        // ACT
+        sut.syncExternalCustomer(externalCustomer);
+
+        // ASSERT
+        verify(db, times(1)).update(customer);
+        verify(db, never()).update(duplicate);
+        verify(db, never()).updateAll(anyList());
+    }
+
+    @Test
+    public void testSyncCompanyWithSpeculativeLookups() {
+        String externalId = "12345";
+
+        ExternalCustomer externalCustomer = createExternalCompany();
+        externalCustomer.setExternalId(externalId);
+
+        Customer customer = createCustomerWithSameCompanyAs(externalCustomer);
+        customer.setExternalId(externalId);
+        Customer unrelated = createCustomerWithSameCompanyAs(externalCustomer);
+        unrelated.setInternalId("45436");
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalId(externalId)).thenReturn(customer);
+        when(db.findByCompanyNumber(externalCustomer.getCompanyNumber())).thenReturn(unrelated);
+        CustomerSync sut = new CustomerSync(db);
+        sut.setSpeculativeCompanyLookups(true);
+
+        // ACT
+        boolean created = sut.syncExternalCustomer(externalCustomer);
+
+        // ASSERT
+        assertFalse(created);
+        verify(db).findByExternalId(externalId);
+        verify(db).findByMasterExternalId(externalId);
+        verify(db).findByCompanyNumber(externalCustomer.getCompanyNumber());
+        verify(db).update(customer);
+        verify(db, never()).update(unrelated);
+    }
+
+    @Test
+    public void testSyncRetriesOnConcurrentUpdate() {
+        ExternalCustomer externalCustomer = createExternalPerson();
+        externalCustomer.setExternalId("12345");
+        externalCustomer.setName("Jane Doe");
+
+        Customer customer = createPerson(externalCustomer);
+        customer.setExternalId("12345");
+        customer.setMasterExternalId("12345");
+        customer.setName("Joan Doe");
+        Customer reloaded = createPerson(externalCustomer);
+        reloaded.setExternalId("12345");
+        reloaded.setMasterExternalId("12345");
+        reloaded.setName("Joan Doe");
+        reloaded.setVersion(2);
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalId("12345")).thenReturn(customer, reloaded);
+        when(db.update(any(Customer.class)))
+                .thenThrow(new ConcurrentUpdateException("stale"))
+                .thenReturn(reloaded);
+        HistogramSyncMetrics metrics = new HistogramSyncMetrics();
+        CustomerSync sut = new CustomerSync(db);
+        sut.setMetrics(metrics);
+
+        // ACT
+        SyncResult result = sut.sync(externalCustomer);
+
+        // ASSERT
+        assertEquals(SyncOutcome.UPDATED, result.getOutcome());
+        verify(db, times(2)).findByExternalId("12345");
+        verify(db, times(2)).update(any(Customer.class));
+        assertEquals("Jane Doe", reloaded.getName());
+        assertEquals(1, metrics.getRetryCount());
+    }
+
+    @Test
+    public void testSyncGivesUpAfterMaxAttempts() {
+        ExternalCustomer externalCustomer = createExternalPerson();
+        externalCustomer.setExternalId("12345");
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.create(any(Customer.class))).thenThrow(new ConcurrentUpdateException("taken"));
+        CustomerSync sut = new CustomerSync(db);
+        sut.setMaxSyncAttempts(2);
+
+        // ACT
+        Assertions.assertThrows(ConcurrentUpdateException.class, () -> sut.sync(externalCustomer));
+
+        // ASSERT
+        verify(db, times(2)).create(any(Customer.class));
+    }
+
+    @Test
+    public void testBatchPathsReportExhaustedRetriesAsConflicts() {
+        ExternalCustomer externalCustomer = createExternalPerson();
+        externalCustomer.setExternalId("12345");
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.create(any(Customer.class))).thenThrow(new ConcurrentUpdateException("taken"));
+        HistogramSyncMetrics metrics = new HistogramSyncMetrics();
+        CustomerSync sut = new CustomerSync(db);
+        sut.setMaxSyncAttempts(2);
+        sut.setMetrics(metrics);
+
+        // ACT
+        List<SyncResult> results = new ArrayList<>();
+        results.add(sut.trySync(externalCustomer));
+        results.addAll(sut.syncExternalCustomers(Collections.singletonList(externalCustomer)));
+        results.addAll(sut.bulkLoad(Collections.singletonList(externalCustomer)));
+
+        // ASSERT
+        for (SyncResult result : results) {
+            assertTrue(result.isConflict());
+            assertEquals(ConflictType.CONCURRENT_UPDATE, result.getConflictType());
+            assertEquals("12345", result.getExternalId());
+        }
+        assertEquals(3, metrics.getConflictCount(ConflictType.CONCURRENT_UPDATE));
+    }
+
+    @Test
+    public void testSyncExternalCustomerAsync() throws Exception {
+        String externalId = "12345";
+
+        ExternalCustomer externalCustomer = createExternalCompany();
+        externalCustomer.setExternalId(externalId);
+
+        Customer customer = createCustomerWithSameCompanyAs(externalCustomer);
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByCompanyNumber(externalCustomer.getCompanyNumber())).thenReturn(customer);
+        CustomerSync sut = new CustomerSync(db);
+
+        // ACT
+        SyncResult result = sut.syncExternalCustomerAsync(externalCustomer).get();
+
+        // ASSERT
+        assertEquals(SyncOutcome.UPDATED, result.getOutcome());
+        assertEquals(externalId, customer.getExternalId());
+        assertEquals(externalId, customer.getMasterExternalId());
+        verify(db).findByExternalId(externalId);
+        verify(db).findByMasterExternalId(externalId);
+        verify(db).update(customer);
+        verify(db, times(1)).create(any(Customer.class));
+    }
+
+    @Test
+    public void testSyncExternalCustomerAsyncReportsConflict() throws Exception {
+        String externalId = "12345";
+
+        ExternalCustomer externalCustomer = createExternalPerson();
+        externalCustomer.setExternalId(externalId);
+
+        Customer customer = createPerson(externalCustomer);
+        customer.setCustomerType(CustomerType.COMPANY);
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalId(externalId)).thenReturn(customer);
+        CustomerSync sut = new CustomerSync(db);
+
+        // ACT
+        SyncResult result = sut.syncExternalCustomerAsync(externalCustomer).get();
+
+        // ASSERT
+        assertEquals(SyncOutcome.CONFLICT, result.getOutcome());
+        assertEquals("Existing customer for externalCustomer 12345 already exists and is not a person", result.getConflictMessage());
+        verify(db, never()).update(any(Customer.class));
+    }
+
     @Test
     public void testConflictExceptionWhenNotCompany() {
         String externalId = "12345";
@@ -239,6 +706,8 @@ public class CustomerSyncTest {
                 "Existing customer for externalCustomer 12345 already exists and is not a company",
                 thrown.getMessage()
         );
+        assertEquals(ConflictType.NOT_A_COMPANY, thrown.getConflictType());
+        assertEquals(0, thrown.getStackTrace().length);
     }
 
     @Test
@@ -269,6 +738,217 @@ public class CustomerSyncTest {
         );
     }
 
+    @Test
+    public void testTrySyncReportsConflictWithoutThrowing() {
+        ExternalCustomer externalCustomer = createExternalCompany();
+        externalCustomer.setExternalId("12345");
+
+        Customer otherCompany = createCustomerWithSameCompanyAs(externalCustomer);
+        otherCompany.setExternalId("67890");
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByCompanyNumber(externalCustomer.getCompanyNumber())).thenReturn(otherCompany);
+        CustomerSync sut = new CustomerSync(db);
+
+        // ACT
+        SyncResult result = sut.trySync(externalCustomer);
+
+        // ASSERT
+        assertEquals(SyncOutcome.CONFLICT, result.getOutcome());
+        assertEquals(ConflictType.COMPANY_NUMBER_TAKEN, result.getConflictType());
+        assertEquals("Existing customer for externalCustomer 470813-8895 doesn't match external id 12345 instead found 67890",
+                result.getConflictMessage());
+        ConflictException thrown = assertThrows(ConflictException.class, () -> sut.sync(externalCustomer));
+        assertEquals(result.getConflict(), thrown.getConflict());
+        verify(db, never()).update(any(Customer.class));
+        verify(db, never()).create(any(Customer.class));
+    }
+
+    @Test
+    public void testSyncExternalCustomersUsesBulkLookups() {
+        ExternalCustomer existingPerson = createExternalPerson();
+        existingPerson.setExternalId("1");
+        ExternalCustomer newPerson = createExternalPerson();
+        newPerson.setExternalId("2");
+        ExternalCustomer conflictingCompany = createExternalCompany();
+        conflictingCompany.setExternalId("3");
+
+        Customer person = createPerson(existingPerson);
+        person.setExternalId("1");
+        Customer notACompany = createPerson(conflictingCompany);
+        notACompany.setExternalId("3");
+        notACompany.setInternalId("45436");
+
+        Map<String, Customer> byExternalId = new HashMap<>();
+        byExternalId.put("1", person);
+        byExternalId.put("3", notACompany);
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalIds(anyCollection())).thenReturn(byExternalId);
+        when(db.update(any(Customer.class))).thenReturn(person);
+        when(db.create(any(Customer.class))).thenAnswer(invocation -> invocation.getArguments()[0]);
+        CustomerSync sut = new CustomerSync(db);
+
+        // ACT
+        List<SyncResult> results = sut.syncExternalCustomers(Arrays.asList(existingPerson, newPerson, conflictingCompany));
+
+        // ASSERT
+        assertEquals(3, results.size());
+        assertEquals(SyncOutcome.UPDATED, results.get(0).getOutcome());
+        assertEquals(SyncOutcome.CREATED, results.get(1).getOutcome());
+        assertEquals(SyncOutcome.CONFLICT, results.get(2).getOutcome());
+        assertEquals("Existing customer for externalCustomer 3 already exists and is not a company",
+                results.get(2).getConflictMessage());
+        assertEquals(ConflictType.NOT_A_COMPANY, results.get(2).getConflictType());
+        assertEquals(CustomerService.EXTERNAL_ID, results.get(0).getMatchedBy());
+        assertNull(results.get(1).getMatchedBy());
+        verify(db, times(1)).findByExternalIds(anyCollection());
+        verify(db, never()).findByExternalId(anyString());
+        verify(db, never()).findByCompanyNumber(anyString());
+    }
+
+    @Test
+    public void testBulkLoadCreatesKnownNewCustomersInOneBatch() {
+        ExternalCustomer existingPerson = createExternalPerson();
+        existingPerson.setExternalId("1");
+        ExternalCustomer newPerson = createExternalPerson();
+        newPerson.setExternalId("2");
+        ExternalCustomer newCompany = createExternalCompany();
+        newCompany.setExternalId("3");
+        ExternalCustomer repeatedPerson = createExternalPerson();
+        repeatedPerson.setExternalId("2");
+        repeatedPerson.setName("Acme Ltd.");
+
+        Customer person = createPerson(existingPerson);
+        person.setExternalId("1");
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalIds(anyCollection())).thenReturn(Collections.singletonMap("1", person));
+        doAnswer(invocation -> {
+            List<Customer> customers = (List<Customer>) invocation.getArguments()[0];
+            for (int i = 0; i < customers.size(); i++) {
+                customers.get(i).setInternalId("new-" + i);
+            }
+            return null;
+        }).when(db).createAll(anyList());
+        CustomerSync sut = new CustomerSync(db);
+
+        // ACT
+        List<SyncResult> results = sut.bulkLoad(Arrays.asList(existingPerson, newPerson, newCompany, repeatedPerson));
+
+        // ASSERT
+        assertEquals(SyncOutcome.UPDATED, results.get(0).getOutcome());
+        assertEquals(SyncOutcome.CREATED, results.get(1).getOutcome());
+        assertEquals(SyncOutcome.CREATED, results.get(2).getOutcome());
+        assertEquals(SyncOutcome.UPDATED, results.get(3).getOutcome());
+        verify(db, times(1)).createAll(anyList());
+        verify(db, never()).create(any(Customer.class));
+        verify(db, never()).findByExternalId(anyString());
+        verify(db, never()).findByCompanyNumber(anyString());
+        verify(db, times(2)).update(any(Customer.class));
+    }
+
+    @Test
+    public void testRecordsMetricsPerSync() {
+        ExternalCustomer newCompany = createExternalCompany();
+        ExternalCustomer conflictingPerson = createExternalPerson();
+        conflictingPerson.setExternalId("67890");
+
+        Customer company = createCustomerWithSameCompanyAs(newCompany);
+        company.setExternalId("67890");
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalId("67890")).thenReturn(company);
+        when(db.create(any(Customer.class))).thenAnswer(invocation -> invocation.getArguments()[0]);
+        HistogramSyncMetrics metrics = new HistogramSyncMetrics();
+        CustomerSync sut = new CustomerSync(db);
+        sut.setMetrics(metrics);
+
+        // ACT
+        sut.sync(newCompany);
+        assertThrows(ConflictException.class, () -> sut.sync(conflictingPerson));
+
+        // ASSERT
+        assertEquals(1, metrics.getOutcomeCount(SyncOutcome.CREATED));
+        assertEquals(1, metrics.getOutcomeCount(SyncOutcome.CONFLICT));
+        assertEquals(1, metrics.getConflictCount(ConflictType.NOT_A_PERSON));
+        assertEquals(0, metrics.getConflictCount(ConflictType.NOT_A_COMPANY));
+        assertEquals(1, metrics.getPhase(SyncPhase.LOAD).getCount());
+        assertEquals(1, metrics.getPhase(SyncPhase.WRITE).getCount());
+        assertEquals(1, metrics.getPhase(SyncPhase.SHOPPING_LISTS).getCount());
+        assertEquals(0, metrics.getDuplicatesHandled());
+        assertEquals(4, metrics.getRepositoryCallsPerSync().getMax());
+    }
+
+    @Test
+    public void testCompanyNumberTakenByAnotherCompanyIsAConflict() {
+        InMemoryCustomerRespository db = new InMemoryCustomerRespository();
+        CustomerSync sut = new CustomerSync(db);
+        sut.sync(ExternalCustomers.createExternalCompany("X", "A", "Acme Inc."));
+        sut.sync(ExternalCustomers.createExternalCompany("Z", "B", "Zenith Ltd."));
+
+        // ACT
+        SyncResult result = sut.trySync(ExternalCustomers.createExternalCompany("X", "B", "Acme Inc."));
+
+        // ASSERT
+        assertEquals(SyncOutcome.CONFLICT, result.getOutcome());
+        assertEquals(ConflictType.COMPANY_NUMBER_TAKEN, result.getConflictType());
+        assertEquals(2, db.size());
+        assertEquals("X", db.findByExternalId("X").getMasterExternalId());
+        assertEquals("A", db.findByExternalId("X").getCompanyNumber());
+    }
+
+    @Test
+    public void testResyncingACompanyMatchedByCompanyNumberKeepsMatchingIt() {
+        InMemoryCustomerRespository db = new InMemoryCustomerRespository();
+        Customer unkeyed = new Customer();
+        unkeyed.setCompanyNumber("C1");
+        unkeyed.setCustomerType(CustomerType.COMPANY);
+        db.create(unkeyed);
+        CustomerSync sut = new CustomerSync(db);
+
+        // ACT
+        List<SyncResult> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(sut.trySync(ExternalCustomers.createExternalCompany("X", "C1", "Acme Inc.")));
+        }
+
+        // ASSERT
+        assertEquals(SyncOutcome.UPDATED, results.get(0).getOutcome());
+        assertFalse(results.get(1).isConflict(), results.get(1).getConflictMessage());
+        assertFalse(results.get(2).isConflict(), results.get(2).getConflictMessage());
+        assertEquals(unkeyed.getInternalId(), db.findByExternalId("X").getInternalId());
+        assertEquals(CustomerType.COMPANY, db.findByExternalId("X").getCustomerType());
+    }
+
+    @Test
+    public void testRecordsTheSamePhasesOnAsyncAndBulkPaths() {
+        ExternalCustomer newPerson = createExternalPerson();
+        newPerson.setExternalId("67890");
+
+        HistogramSyncMetrics asyncMetrics = new HistogramSyncMetrics();
+        CustomerSync asyncSync = new CustomerSync(new InMemoryCustomerRespository());
+        asyncSync.setMetrics(asyncMetrics);
+        HistogramSyncMetrics bulkMetrics = new HistogramSyncMetrics();
+        CustomerSync bulkSync = new CustomerSync(new InMemoryCustomerRespository());
+        bulkSync.setMetrics(bulkMetrics);
+
+        // ACT
+        asyncSync.syncExternalCustomerAsync(createExternalCompany()).join();
+        bulkSync.bulkLoad(Arrays.asList(createExternalCompany(), newPerson));
+
+        // ASSERT
+        assertEquals(1, asyncMetrics.getOutcomeCount(SyncOutcome.CREATED));
+        assertEquals(2, bulkMetrics.getOutcomeCount(SyncOutcome.CREATED));
+        for (SyncPhase phase : Arrays.asList(SyncPhase.LOAD, SyncPhase.POPULATE, SyncPhase.WRITE, SyncPhase.SHOPPING_LISTS)) {
+            assertEquals(1, asyncMetrics.getPhase(phase).getCount(), phase.name());
+            assertTrue(bulkMetrics.getPhase(phase).getCount() > 0, phase.name());
+        }
+        assertEquals(2, bulkMetrics.getPhase(SyncPhase.LOAD).getCount());
+        assertEquals(1, asyncMetrics.getRepositoryCallsPerSync().getCount());
+        assertEquals(2, bulkMetrics.getRepositoryCallsPerSync().getCount());
+    }
+
     private ExternalCustomer createExternalCompany() {
         ExternalCustomer externalCustomer = new ExternalCustomer();
         externalCustomer.setExternalId("12345");
@@ -0,0 +1,24 @@
+package codingdojo;
+
+import codingdojo.models.Address;
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.ShoppingList;
+
+import java.util.Collections;
+
+public final class ExternalCustomers {
+
+    private ExternalCustomers() {
+    }
+
+    public static ExternalCustomer createExternalCompany(String externalId, String companyNumber, String name) {
+        ExternalCustomer externalCustomer = new ExternalCustomer();
+        externalCustomer.setExternalId(externalId);
+        externalCustomer.setName(name);
+        externalCustomer.setAddress(new Address("123 main st", "Helsingborg", "SE-123 45"));
+        externalCustomer.setCompanyNumber(companyNumber);
+        externalCustomer.setShoppingLists(Collections.singletonList(new ShoppingList("lipstick", "blusher")));
+
+        return externalCustomer;
+    }
+}
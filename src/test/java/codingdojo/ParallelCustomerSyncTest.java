@@ -0,0 +1,41 @@
+package codingdojo;
+
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.SyncResult;
+import codingdojo.repositories.InMemoryCustomerRespository;
+import codingdojo.types.SyncOutcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static codingdojo.ExternalCustomers.createExternalCompany;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelCustomerSyncTest {
+
+    @Test
+    public void testKeepsUpdatesToTheSameKeyOrdered() throws Exception {
+        InMemoryCustomerRespository db = new InMemoryCustomerRespository();
+        List<ExternalCustomer> externalCustomers = new ArrayList<>();
+        for (int version = 0; version < 50; version++) {
+            for (int id = 0; id < 10; id++) {
+                externalCustomers.add(createExternalCompany("ext-" + id, "company-" + (id % 3 == 0 ? id : id + 100), "v" + version));
+            }
+        }
+
+        // ACT
+        List<SyncResult> results;
+        try (ParallelCustomerSync sut = new ParallelCustomerSync(new CustomerSync(db), 4)) {
+            results = sut.syncAll(externalCustomers);
+        }
+
+        // ASSERT
+        assertEquals(externalCustomers.size(), results.size());
+        assertEquals(10, db.size());
+        for (int id = 0; id < 10; id++) {
+            assertEquals("v49", db.findByExternalId("ext-" + id).getName());
+        }
+        assertEquals(10, results.stream().filter(result -> SyncOutcome.CREATED.equals(result.getOutcome())).count());
+    }
+}
@@ -0,0 +1,251 @@
+package codingdojo;
+
+import codingdojo.ingestion.NdjsonExternalCustomerReader;
+import codingdojo.models.Customer;
+import codingdojo.models.Discrepancy;
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.ReconciliationReport;
+import codingdojo.models.ShoppingList;
+import codingdojo.repositories.AsyncCustomerRepository;
+import codingdojo.repositories.BlockingCustomerRespository;
+import codingdojo.repositories.CustomerRespository;
+import codingdojo.repositories.InMemoryCustomerRespository;
+import codingdojo.repositories.ScannableCustomerRespository;
+import codingdojo.types.CustomerField;
+import codingdojo.types.DiscrepancyType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReconcilerTest {
+
+    @Test
+    public void testReportsMissingExtraAndDivergentCustomersAcrossRanges() throws Exception {
+        InMemoryCustomerRespository db = new InMemoryCustomerRespository();
+        CustomerSync customerSync = new CustomerSync(db);
+        customerSync.syncExternalCustomers(Arrays.asList(
+                createExternalPerson("a1", "Alice", 10),
+                createExternalPerson("a2", "Bob", 20),
+                createExternalPerson("m1", "Extra", 30),
+                createExternalPerson("z1", "Zed", 40)));
+        Path snapshot = write(
+                "{\"externalId\":\"a1\",\"name\":\"Alice\",\"bonusPointsBalance\":10,\"shoppingLists\":[]}",
+                "{\"externalId\":\"a2\",\"name\":\"Robert\",\"bonusPointsBalance\":20,\"shoppingLists\":[]}",
+                "{\"externalId\":\"n1\",\"name\":\"Nina\",\"bonusPointsBalance\":50,\"shoppingLists\":[]}",
+                "{\"externalId\":\"z1\",\"name\":\"Zed\",\"bonusPointsBalance\":40,\"shoppingLists\":[{\"products\":[\"lipstick\"]}]}");
+        Reconciler reconciler = new Reconciler(customerSync, db, Arrays.asList("m"));
+        List<Discrepancy> discrepancies = new ArrayList<>();
+
+        // ACT
+        ReconciliationReport report;
+        try (NdjsonExternalCustomerReader reader = new NdjsonExternalCustomerReader(snapshot)) {
+            report = reconciler.reconcile(reader, discrepancies::add);
+        }
+
+        // ASSERT
+        assertEquals(1, report.getMatched());
+        assertEquals(1, report.getMissing());
+        assertEquals(1, report.getExtra());
+        assertEquals(2, report.getDivergent());
+        assertEquals(0, report.getFixed());
+        assertFalse(report.isConsistent());
+        assertEquals(new HashSet<>(Arrays.asList(
+                new Discrepancy(DiscrepancyType.DIVERGENT, "a2", EnumSet.of(CustomerField.NAME)),
+                new Discrepancy(DiscrepancyType.EXTRA, "m1", Collections.emptySet()),
+                new Discrepancy(DiscrepancyType.MISSING, "n1", Collections.emptySet()),
+                new Discrepancy(DiscrepancyType.DIVERGENT, "z1", EnumSet.of(CustomerField.SHOPPING_LISTS)))),
+                new HashSet<>(discrepancies));
+        assertEquals("Bob", db.findByExternalId("a2").getName());
+        assertNull(db.findByExternalId("n1"));
+    }
+
+    @Test
+    public void testAppliesFixesThroughBatchSync() throws Exception {
+        InMemoryCustomerRespository db = new InMemoryCustomerRespository();
+        CustomerSync customerSync = new CustomerSync(db);
+        customerSync.syncExternalCustomers(Arrays.asList(createExternalPerson("a2", "Bob", 20)));
+        Path snapshot = write(
+                "{\"externalId\":\"a1\",\"name\":\"Alice\",\"bonusPointsBalance\":10,\"shoppingLists\":[]}",
+                "{\"externalId\":\"a2\",\"name\":\"Robert\",\"bonusPointsBalance\":20,\"shoppingLists\":[]}",
+                "{\"externalId\":\"n1\",\"name\":\"Nina\",\"bonusPointsBalance\":50,\"shoppingLists\":[]}");
+        Reconciler reconciler = new Reconciler(customerSync, db, Arrays.asList("b", "m"));
+        reconciler.setApplyFixes(true);
+        reconciler.setFixBatchSize(1);
+
+        // ACT
+        ReconciliationReport report;
+        try (NdjsonExternalCustomerReader reader = new NdjsonExternalCustomerReader(snapshot)) {
+            report = reconciler.reconcile(reader, discrepancy -> { });
+        }
+
+        // ASSERT
+        assertEquals(3, report.getFixed());
+        assertEquals("Alice", db.findByExternalId("a1").getName());
+        assertEquals("Robert", db.findByExternalId("a2").getName());
+        assertEquals("Nina", db.findByExternalId("n1").getName());
+        try (NdjsonExternalCustomerReader reader = new NdjsonExternalCustomerReader(snapshot)) {
+            assertTrue(reconciler.reconcile(reader, discrepancy -> { }).isConsistent());
+        }
+    }
+
+    @Test
+    public void testSyncsThroughAsyncRepositoryAdaptersWhileScanningTheStore() throws Exception {
+        InMemoryCustomerRespository db = new InMemoryCustomerRespository();
+        CustomerRespository blocking = new BlockingCustomerRespository(AsyncCustomerRepository.fromBlocking(db));
+        CustomerSync customerSync = new CustomerSync(blocking);
+        customerSync.syncExternalCustomers(Arrays.asList(createExternalPerson("a1", "Alice", 10)));
+        Path snapshot = write(
+                "{\"externalId\":\"a1\",\"name\":\"Alice\",\"bonusPointsBalance\":10,\"shoppingLists\":[]}");
+        Reconciler reconciler = new Reconciler(customerSync, db);
+
+        // ACT
+        ReconciliationReport report;
+        try (NdjsonExternalCustomerReader reader = new NdjsonExternalCustomerReader(snapshot)) {
+            report = reconciler.reconcile(reader, discrepancy -> { });
+        }
+
+        // ASSERT
+        assertEquals(1, report.getMatched());
+        assertTrue(report.isConsistent());
+    }
+
+    @Test
+    public void testAppliesFixesAfterTheScanWithoutTouchingScannedCustomers() throws Exception {
+        ScanRecordingRespository db = new ScanRecordingRespository(new InMemoryCustomerRespository());
+        CustomerSync customerSync = new CustomerSync(db);
+        customerSync.syncExternalCustomers(Arrays.asList(createExternalPerson("a1", "Alice", 10), createExternalPerson("a2", "Bob", 20)));
+        Path snapshot = write(
+                "{\"externalId\":\"a1\",\"name\":\"Alicia\",\"bonusPointsBalance\":10,\"shoppingLists\":[]}",
+                "{\"externalId\":\"a2\",\"name\":\"Robert\",\"bonusPointsBalance\":20,\"shoppingLists\":[]}");
+        Reconciler reconciler = new Reconciler(customerSync, db);
+        reconciler.setApplyFixes(true);
+        reconciler.setFixBatchSize(1);
+
+        // ACT
+        ReconciliationReport report;
+        try (NdjsonExternalCustomerReader reader = new NdjsonExternalCustomerReader(snapshot)) {
+            report = reconciler.reconcile(reader, discrepancy -> { });
+        }
+
+        // ASSERT
+        assertEquals(2, report.getFixed());
+        assertEquals(0, db.writesDuringScan);
+        assertEquals(Arrays.asList("Alice", "Bob"), db.scannedNames);
+        assertEquals(Arrays.asList("Alice", "Bob"), Arrays.asList(db.scanned.get(0).getName(), db.scanned.get(1).getName()));
+        assertEquals("Robert", db.findByExternalId("a2").getName());
+    }
+
+    @Test
+    public void testRejectsUnsortedSnapshot() throws Exception {
+        InMemoryCustomerRespository db = new InMemoryCustomerRespository();
+        Reconciler reconciler = new Reconciler(new CustomerSync(db), db);
+        Path snapshot = write(
+                "{\"externalId\":\"b\",\"name\":\"Bob\",\"shoppingLists\":[]}",
+                "{\"externalId\":\"a\",\"name\":\"Alice\",\"shoppingLists\":[]}");
+
+        // ACT
+        try (NdjsonExternalCustomerReader reader = new NdjsonExternalCustomerReader(snapshot)) {
+            assertThrows(IllegalArgumentException.class, () -> reconciler.reconcile(reader, discrepancy -> { }));
+        }
+    }
+
+    private ExternalCustomer createExternalPerson(String externalId, String name, int bonusPointsBalance) {
+        ExternalCustomer externalCustomer = new ExternalCustomer();
+        externalCustomer.setExternalId(externalId);
+        externalCustomer.setName(name);
+        externalCustomer.setBonusPointsBalance(bonusPointsBalance);
+        externalCustomer.setShoppingLists(new ArrayList<ShoppingList>());
+
+        return externalCustomer;
+    }
+
+    private Path write(String... lines) throws IOException {
+        Path file = Files.createTempFile("snapshot", ".ndjson");
+        Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+
+        return file;
+    }
+
+    private static class ScanRecordingRespository implements ScannableCustomerRespository {
+        private final InMemoryCustomerRespository customerRespository;
+        private final List<Customer> scanned = new ArrayList<>();
+        private final List<String> scannedNames = new ArrayList<>();
+        private boolean scanning;
+        private int writesDuringScan;
+
+        ScanRecordingRespository(InMemoryCustomerRespository customerRespository) {
+            this.customerRespository = customerRespository;
+        }
+
+        @Override
+        public Customer update(Customer customer) {
+            recordWrite();
+            return customerRespository.update(customer);
+        }
+
+        @Override
+        public Customer create(Customer customer) {
+            recordWrite();
+            return customerRespository.create(customer);
+        }
+
+        @Override
+        public Customer updateShoppingList(ShoppingList consumerShoppingList) {
+            recordWrite();
+            return customerRespository.updateShoppingList(consumerShoppingList);
+        }
+
+        @Override
+        public void updateShoppingLists(Customer owner, List<ShoppingList> addedShoppingLists) {
+            recordWrite();
+            customerRespository.updateShoppingLists(owner, addedShoppingLists);
+        }
+
+        @Override
+        public Customer findByExternalId(String externalId) {
+            return customerRespository.findByExternalId(externalId);
+        }
+
+        @Override
+        public Customer findByMasterExternalId(String externalId) {
+            return customerRespository.findByMasterExternalId(externalId);
+        }
+
+        @Override
+        public Customer findByCompanyNumber(String companyNumber) {
+            return customerRespository.findByCompanyNumber(companyNumber);
+        }
+
+        @Override
+        public synchronized void scanByExternalId(String fromInclusive, String toExclusive, Consumer<Customer> consumer) {
+            scanning = true;
+            try {
+                customerRespository.scanByExternalId(fromInclusive, toExclusive, customer -> {
+                    scanned.add(customer);
+                    scannedNames.add(customer.getName());
+                    consumer.accept(customer);
+                });
+            } finally {
+                scanning = false;
+            }
+        }
+
+        private synchronized void recordWrite() {
+            if (scanning) {
+                writesDuringScan++;
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package codingdojo;
+
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.SyncResult;
+import codingdojo.repositories.ConcurrencyRecordingRespository;
+import codingdojo.repositories.InMemoryCustomerRespository;
+import codingdojo.types.SyncOutcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static codingdojo.ExternalCustomers.createExternalCompany;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SyncExecutorTest {
+
+    @Test
+    public void testThrottlesRepositoryCallsFromVirtualThreads() throws Exception {
+        InMemoryCustomerRespository store = new InMemoryCustomerRespository();
+        ConcurrencyRecordingRespository db = new ConcurrencyRecordingRespository(store);
+        List<ExternalCustomer> externalCustomers = new ArrayList<>();
+        for (int id = 0; id < 100; id++) {
+            externalCustomers.add(createExternalCompany("ext-" + id, "company-" + id, "Acme " + id));
+        }
+
+        // ACT
+        List<SyncResult> results;
+        try (SyncExecutor sut = SyncExecutor.virtualThreads(db, 2)) {
+            results = sut.syncAll(externalCustomers);
+        }
+
+        // ASSERT
+        assertEquals(100, results.size());
+        assertTrue(results.stream().allMatch(SyncResult::isCreated));
+        assertEquals(100, store.size());
+        assertTrue(db.getMaxActiveCalls() <= 2, "max concurrent calls: " + db.getMaxActiveCalls());
+    }
+
+    @Test
+    public void testRunsSameKeyUpdatesInSubmissionOrder() throws Exception {
+        InMemoryCustomerRespository db = new InMemoryCustomerRespository();
+        List<ExternalCustomer> externalCustomers = new ArrayList<>();
+        for (int version = 0; version < 50; version++) {
+            for (int id = 0; id < 20; id++) {
+                externalCustomers.add(createExternalCompany("ext-" + id, "company-" + id, "v" + version));
+            }
+        }
+
+        // ACT
+        List<SyncResult> results;
+        try (SyncExecutor sut = SyncExecutor.platformThreads(new CustomerSync(db), 4)) {
+            results = sut.syncAll(externalCustomers);
+        }
+
+        // ASSERT
+        assertEquals(externalCustomers.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(externalCustomers.get(i).getExternalId(), results.get(i).getExternalId());
+        }
+        for (int id = 0; id < 20; id++) {
+            assertEquals(SyncOutcome.CREATED, results.get(id).getOutcome());
+            assertEquals(SyncOutcome.UPDATED, results.get(id + 20).getOutcome());
+            assertEquals("v49", db.findByExternalId("ext-" + id).getName());
+        }
+        assertEquals(20, db.size());
+    }
+}
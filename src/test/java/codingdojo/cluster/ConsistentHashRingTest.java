@@ -0,0 +1,51 @@
+package codingdojo.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsistentHashRingTest {
+
+    @Test
+    public void testJoiningWorkerOnlyTakesKeysFromOthers() {
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("a", "b", "c"), 128);
+
+        // ACT
+        ConsistentHashRing joined = ring.withWorker("d");
+
+        // ASSERT
+        int moved = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String key = "E:" + i;
+            String before = ring.ownerOf(key);
+            String after = joined.ownerOf(key);
+            if (!before.equals(after)) {
+                assertEquals("d", after);
+                moved++;
+            }
+        }
+        assertTrue(moved > 1_500 && moved < 3_500, "moved keys: " + moved);
+        assertEquals(ring.ownerOf("C:470813-8895"), new ConsistentHashRing(Arrays.asList("a", "b", "c"), 128).ownerOf("C:470813-8895"));
+    }
+
+    @Test
+    public void testLeavingWorkerHandsKeysToOthers() {
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("a", "b", "c"), 128);
+
+        // ACT
+        ConsistentHashRing left = ring.withoutWorker("b");
+
+        // ASSERT
+        for (int i = 0; i < 10_000; i++) {
+            String key = "E:" + i;
+            if (!"b".equals(ring.ownerOf(key))) {
+                assertEquals(ring.ownerOf(key), left.ownerOf(key));
+            } else {
+                assertNotEquals("b", left.ownerOf(key));
+            }
+        }
+        assertThrows(IllegalStateException.class, () -> left.withoutWorker("a").withoutWorker("c").ownerOf("E:1"));
+    }
+}
@@ -0,0 +1,189 @@
+package codingdojo.cluster;
+
+import codingdojo.CustomerSync;
+import codingdojo.models.Customer;
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.ShoppingList;
+import codingdojo.models.SyncResult;
+import codingdojo.repositories.CachingCustomerRespository;
+import codingdojo.repositories.CustomerRespository;
+import codingdojo.repositories.InMemoryCustomerRespository;
+import codingdojo.types.SyncOutcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static codingdojo.ExternalCustomers.createExternalCompany;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionedCustomerSyncTest {
+
+    @Test
+    public void testEachKeyIsSyncedByItsOwner() throws Exception {
+        InMemoryCustomerRespository db = new InMemoryCustomerRespository();
+        LocalSyncTransport transport = new LocalSyncTransport();
+        List<ExternalCustomer> externalCustomers = createVersions(20, 10);
+
+        // ACT
+        List<SyncResult> results;
+        try (PartitionedCustomerSync sut = new PartitionedCustomerSync(transport)) {
+            for (String workerId : new String[]{"a", "b", "c"}) {
+                sut.addWorker(workerId, new CustomerSync(new CachingCustomerRespository(db, 1_000)));
+            }
+            results = sut.syncAll(externalCustomers);
+
+            // ASSERT
+            long processed = 0;
+            for (String workerId : sut.getWorkerIds()) {
+                assertTrue(sut.getProcessedCount(workerId) > 0, workerId);
+                processed += sut.getProcessedCount(workerId);
+            }
+            assertEquals(externalCustomers.size(), processed);
+        }
+
+        assertEquals(20, db.size());
+        assertEquals(20, results.stream().filter(result -> SyncOutcome.CREATED.equals(result.getOutcome())).count());
+        for (int id = 0; id < 20; id++) {
+            assertEquals("v9", db.findByExternalId("ext-" + id).getName());
+        }
+    }
+
+    @Test
+    public void testHandsOffQueuedRecordsWhenWorkersJoinAndLeave() throws Exception {
+        InMemoryCustomerRespository db = new InMemoryCustomerRespository();
+        CountDownLatch gate = new CountDownLatch(1);
+        List<ExternalCustomer> externalCustomers = createVersions(30, 5);
+
+        try (PartitionedCustomerSync sut = new PartitionedCustomerSync(new LocalSyncTransport())) {
+            sut.addWorker("a", new CustomerSync(new GatedCustomerRespository(db, gate)));
+            sut.addWorker("b", new CustomerSync(new GatedCustomerRespository(db, gate)));
+            List<CompletableFuture<SyncResult>> futures = new ArrayList<>();
+            for (ExternalCustomer externalCustomer : externalCustomers) {
+                futures.add(sut.submit(externalCustomer));
+            }
+
+            // ACT
+            sut.addWorker("c", new CustomerSync(db));
+            long handedOffOnJoin = sut.getHandedOffCount();
+            gate.countDown();
+            sut.removeWorker("a");
+            for (CompletableFuture<SyncResult> future : futures) {
+                future.get();
+            }
+
+            // ASSERT
+            assertTrue(handedOffOnJoin > 0);
+            assertEquals(Arrays.asList("b", "c"), sut.getWorkerIds());
+            assertNotEquals("a", sut.ownerOf(externalCustomers.get(0)));
+        }
+
+        assertEquals(30, db.size());
+        for (int id = 0; id < 30; id++) {
+            assertEquals("v4", db.findByExternalId("ext-" + id).getName());
+        }
+    }
+
+    @Test
+    public void testKeepsReKeyedCompaniesAndSharedCompanyNumbersOrdered() throws Exception {
+        InMemoryCustomerRespository db = new InMemoryCustomerRespository();
+        List<ExternalCustomer> externalCustomers = new ArrayList<>();
+        for (int version = 0; version < 10; version++) {
+            externalCustomers.add(createExternalCompany("rekeyed", "company-" + version, "v" + version));
+        }
+        for (int id = 0; id < 20; id++) {
+            externalCustomers.add(createExternalCompany("first-" + id, "shared-" + id, "first"));
+            externalCustomers.add(createExternalCompany("second-" + id, "shared-" + id, "second"));
+        }
+
+        // ACT
+        List<SyncResult> results;
+        try (PartitionedCustomerSync sut = new PartitionedCustomerSync(new LocalSyncTransport())) {
+            for (String workerId : new String[]{"a", "b", "c"}) {
+                sut.addWorker(workerId, new CustomerSync(db));
+            }
+            results = sut.syncAll(externalCustomers);
+        }
+
+        // ASSERT
+        for (int version = 0; version < 10; version++) {
+            assertFalse(results.get(version).isConflict(), results.get(version).getConflictMessage());
+        }
+        assertEquals("company-9", db.findByExternalId("rekeyed").getCompanyNumber());
+        assertEquals("v9", db.findByExternalId("rekeyed").getName());
+        for (int id = 0; id < 20; id++) {
+            assertEquals(SyncOutcome.CREATED, results.get(10 + 2 * id).getOutcome());
+            assertEquals(SyncOutcome.CONFLICT, results.get(11 + 2 * id).getOutcome());
+            assertEquals("first", db.findByCompanyNumber("shared-" + id).getName());
+        }
+    }
+
+    private List<ExternalCustomer> createVersions(int customers, int versions) {
+        List<ExternalCustomer> externalCustomers = new ArrayList<>();
+        for (int version = 0; version < versions; version++) {
+            for (int id = 0; id < customers; id++) {
+                externalCustomers.add(createExternalCompany("ext-" + id, "company-" + id, "v" + version));
+            }
+        }
+
+        return externalCustomers;
+    }
+
+    private static class GatedCustomerRespository implements CustomerRespository {
+        private final CustomerRespository customerRespository;
+        private final CountDownLatch gate;
+
+        GatedCustomerRespository(CustomerRespository customerRespository, CountDownLatch gate) {
+            this.customerRespository = customerRespository;
+            this.gate = gate;
+        }
+
+        @Override
+        public Customer update(Customer customer) {
+            return customerRespository.update(customer);
+        }
+
+        @Override
+        public Customer create(Customer customer) {
+            return customerRespository.create(customer);
+        }
+
+        @Override
+        public Customer updateShoppingList(ShoppingList consumerShoppingList) {
+            return customerRespository.updateShoppingList(consumerShoppingList);
+        }
+
+        @Override
+        public void updateShoppingLists(Customer owner, List<ShoppingList> addedShoppingLists) {
+            customerRespository.updateShoppingLists(owner, addedShoppingLists);
+        }
+
+        @Override
+        public Customer findByExternalId(String externalId) {
+            awaitGate();
+            return customerRespository.findByExternalId(externalId);
+        }
+
+        @Override
+        public Customer findByMasterExternalId(String externalId) {
+            return customerRespository.findByMasterExternalId(externalId);
+        }
+
+        @Override
+        public Customer findByCompanyNumber(String companyNumber) {
+            return customerRespository.findByCompanyNumber(companyNumber);
+        }
+
+        private void awaitGate() {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package codingdojo.ingestion;
+
+import codingdojo.CustomerSync;
+import codingdojo.exceptions.IngestionException;
+import codingdojo.models.Address;
+import codingdojo.models.Customer;
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.ShoppingList;
+import codingdojo.repositories.CustomerRespository;
+import codingdojo.types.SyncOutcome;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class IngestionPipelineTest {
+
+    @Test
+    public void testReadsNdjsonRecords() throws IOException {
+        Path file = write("ndjson",
+                "{\"externalId\":\"1\",\"name\":\"Acme \\\"Inc.\\\"\",\"companyNumber\":\"470813-8895\"," +
+                        "\"address\":{\"street\":\"123 main st\",\"city\":\"Helsingborg\",\"postalCode\":\"SE-123 45\"}," +
+                        "\"shoppingLists\":[{\"products\":[\"lipstick\",\"blusher\"]}]}",
+                "",
+                "{\"externalId\":\"2\",\"name\":\"Jane\",\"bonusPointsBalance\":100}");
+
+        try (NdjsonExternalCustomerReader reader = new NdjsonExternalCustomerReader(file)) {
+            ExternalCustomer company = reader.next();
+            ExternalCustomer person = reader.next();
+
+            assertEquals("Acme \"Inc.\"", company.getName());
+            assertEquals("470813-8895", company.getCompanyNumber());
+            assertEquals(new Address("123 main st", "Helsingborg", "SE-123 45"), company.getPostalAddress());
+            assertEquals(Arrays.asList(new ShoppingList("lipstick", "blusher")), company.getShoppingLists());
+            assertFalse(person.isCompany());
+            assertEquals(Integer.valueOf(100), person.getBonusPointsBalance());
+            assertTrue(person.getShoppingLists().isEmpty());
+            assertNull(reader.next());
+            assertEquals(Files.size(file), reader.position());
+        }
+        Files.delete(file);
+    }
+
+    @Test
+    public void testRejectsMalformedNdjsonRecordsWithTheirOffset() throws IOException {
+        String valid = "{\"externalId\":\"1\",\"name\":\"Jane\"}";
+        String[] malformed = {
+                "{\"externalId\":\"2\",\"name\":\"J\\u00zz\"}",
+                "{\"externalId\":\"2\",\"shoppingLists\":[{\"products\":[\"lipstick\",42]}]}",
+                "{\"externalId\":\"2\",\"bonusPointsBalance\":4294967296}",
+                "{\"externalId\":\"2\",\"bonusPointsBalance\":12.5}",
+                "{\"externalId\":\"2\",\"address\":\"123 main st\"}"};
+
+        for (String record : malformed) {
+            Path file = write("ndjson", valid, record);
+
+            try (NdjsonExternalCustomerReader reader = new NdjsonExternalCustomerReader(file)) {
+                reader.next();
+                IngestionException e = assertThrows(IngestionException.class, reader::next, record);
+                assertTrue(e.getMessage().startsWith("Invalid record at offset " + (valid.length() + 1)), e.getMessage());
+            }
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testReadsCsvRecordsFromOffset() throws IOException {
+        Path file = write("csv",
+                "externalId,name,companyNumber,bonusPointsBalance,street,city,postalCode,shoppingLists",
+                "1,\"Acme, Inc.\",470813-8895,,123 main st,Helsingborg,SE-123 45,lipstick;blusher|eyeliner",
+                "2,Jane,,100,,,,");
+
+        long secondRecord;
+        try (CsvExternalCustomerReader reader = new CsvExternalCustomerReader(file)) {
+            ExternalCustomer company = reader.next();
+            secondRecord = reader.position();
+
+            assertEquals("Acme, Inc.", company.getName());
+            assertEquals(Arrays.asList(new ShoppingList("lipstick", "blusher"), new ShoppingList("eyeliner")), company.getShoppingLists());
+        }
+
+        try (CsvExternalCustomerReader reader = new CsvExternalCustomerReader(file, secondRecord)) {
+            ExternalCustomer person = reader.next();
+
+            assertEquals("2", person.getExternalId());
+            assertEquals(Integer.valueOf(100), person.getBonusPointsBalance());
+            assertNull(person.getPostalAddress());
+            assertNull(reader.next());
+        }
+        Files.delete(file);
+    }
+
+    @Test
+    public void testReadsCsvFieldsWithQuotedNewlines() throws IOException {
+        Path file = write("csv",
+                "externalId,name,street,city,postalCode",
+                "1,\"Acme\",\"123 main st",
+                "Building \"\"B\"\"\",Helsingborg,SE-123 45",
+                "2,Jane,,,",
+                "3,\"Unterminated");
+
+        try (CsvExternalCustomerReader reader = new CsvExternalCustomerReader(file)) {
+            ExternalCustomer company = reader.next();
+            long secondRecord = reader.position();
+            ExternalCustomer person = reader.next();
+            long thirdRecord = reader.position();
+
+            assertEquals(new Address("123 main st\nBuilding \"B\"", "Helsingborg", "SE-123 45"), company.getPostalAddress());
+            assertEquals("2", person.getExternalId());
+            assertEquals(Files.readAllLines(file).subList(0, 3).stream().mapToInt(line -> line.length() + 1).sum(), secondRecord);
+            IngestionException e = assertThrows(IngestionException.class, reader::next);
+            assertEquals("Invalid record at offset " + thirdRecord + ": Unterminated quoted field", e.getMessage());
+        }
+        Files.delete(file);
+    }
+
+    @Test
+    public void testRunSyncsAllRecordsAndCheckpoints() throws Exception {
+        String[] lines = new String[25];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "{\"externalId\":\"" + i + "\",\"name\":\"Person " + i + "\"}";
+        }
+        Path file = write("ndjson", lines);
+        Path checkpoint = Files.createTempFile("checkpoint", ".txt");
+        Files.delete(checkpoint);
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.create(any(Customer.class))).thenAnswer(invocation -> invocation.getArguments()[0]);
+        IngestionPipeline sut = new IngestionPipeline(new CustomerSync(db), 10, 2);
+
+        // ACT
+        Map<SyncOutcome, Long> outcomes;
+        try (NdjsonExternalCustomerReader reader = new NdjsonExternalCustomerReader(file, IngestionPipeline.readCheckpoint(checkpoint))) {
+            outcomes = sut.run(reader, checkpoint);
+        }
+
+        // ASSERT
+        assertEquals(Long.valueOf(25), outcomes.get(SyncOutcome.CREATED));
+        verify(db, times(25)).create(any(Customer.class));
+        assertEquals(Files.size(file), IngestionPipeline.readCheckpoint(checkpoint));
+
+        try (NdjsonExternalCustomerReader reader = new NdjsonExternalCustomerReader(file, IngestionPipeline.readCheckpoint(checkpoint))) {
+            assertTrue(sut.run(reader, checkpoint).isEmpty());
+        }
+        Files.delete(file);
+        Files.delete(checkpoint);
+    }
+
+    private Path write(String suffix, String... lines) throws IOException {
+        Path file = Files.createTempFile("customers", "." + suffix);
+        Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+
+        return file;
+    }
+}
@@ -0,0 +1,66 @@
+package codingdojo.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShoppingListTest {
+
+    @Test
+    public void testInternedListsCompareByProducts() {
+        ShoppingList first = new ShoppingList("lipstick", "blusher");
+        ShoppingList second = new ShoppingList(new String("lipstick"), new String("blusher"));
+
+        // ASSERT
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, new ShoppingList("blusher", "lipstick"));
+        assertNotEquals(first, new ShoppingList("lipstick"));
+        assertEquals(Arrays.asList("lipstick", "blusher"), second.getProducts());
+        assertEquals(Arrays.asList("lipstick", null), new ShoppingList("lipstick", null).getProducts());
+    }
+
+    @Test
+    public void testInternedListsEqualPlainLists() {
+        ProductDictionary dictionary = new ProductDictionary();
+        ShoppingList interned = new ShoppingList(dictionary, "lipstick", "blusher");
+        ShoppingList plain = new ShoppingList("lipstick", "blusher");
+
+        // ASSERT
+        assertEquals(interned, plain);
+        assertEquals(plain, interned);
+        assertEquals(interned.hashCode(), plain.hashCode());
+        assertEquals(interned, plain.internedIn(dictionary));
+        assertSame(interned, interned.internedIn(dictionary));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    public void testFullDictionaryFallsBackToPlainProducts() {
+        ProductDictionary dictionary = new ProductDictionary(2);
+        new ShoppingList(dictionary, "lipstick", "blusher");
+
+        // ACT
+        ShoppingList overflowing = new ShoppingList(dictionary, "lipstick", "eyeliner");
+
+        // ASSERT
+        assertEquals(2, dictionary.size());
+        assertEquals(Arrays.asList("lipstick", "eyeliner"), overflowing.getProducts());
+        assertEquals(new ShoppingList("lipstick", "eyeliner"), overflowing);
+    }
+
+    @Test
+    public void testFingerprintStaysStringBased() {
+        ExternalCustomer externalCustomer = new ExternalCustomer();
+        externalCustomer.setExternalId("12345");
+        externalCustomer.setName("Acme Inc.");
+        externalCustomer.setAddress(new Address("123 main st", "Helsingborg", "SE-123 45"));
+        externalCustomer.setBonusPointsBalance(10);
+        externalCustomer.setShoppingLists(Arrays.asList(new ShoppingList("lipstick", "blusher")));
+
+        // ASSERT
+        assertEquals(8391409524008223480L, externalCustomer.fingerprint());
+    }
+}
@@ -0,0 +1,105 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Customer;
+import codingdojo.types.CustomerType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CachingCustomerRespositoryTest {
+
+    @Test
+    public void testRepeatedLookupIsServedFromCache() {
+        Customer customer = createCompany("1", "12345", "470813-8895");
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalId("12345")).thenReturn(customer);
+        CachingCustomerRespository sut = new CachingCustomerRespository(db, 10);
+
+        // ACT
+        Customer first = sut.findByExternalId("12345");
+        Customer second = sut.findByExternalId("12345");
+
+        // ASSERT
+        assertSame(customer, first);
+        assertEquals(customer, second);
+        verify(db, times(1)).findByExternalId("12345");
+        assertEquals(1, sut.getHitCount());
+        assertEquals(1, sut.getMissCount());
+    }
+
+    @Test
+    public void testUpdateInvalidatesOldAndNewKeys() {
+        Customer customer = createCompany("1", null, "470813-8895");
+        Customer other = createCompany("2", "12345", "556677-8899");
+
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByCompanyNumber("470813-8895")).thenReturn(customer);
+        when(db.findByExternalId("12345")).thenReturn(other);
+        when(db.update(customer)).thenReturn(customer);
+        CachingCustomerRespository sut = new CachingCustomerRespository(db, 10);
+        sut.findByCompanyNumber("470813-8895");
+        sut.findByExternalId("12345");
+
+        // ACT
+        customer.setExternalId("12345");
+        customer.setMasterExternalId("12345");
+        sut.update(customer);
+        when(db.findByExternalId("12345")).thenReturn(customer);
+
+        // ASSERT
+        assertSame(customer, sut.findByExternalId("12345"));
+        assertSame(customer, sut.findByCompanyNumber("470813-8895"));
+        verify(db, times(2)).findByExternalId("12345");
+        verify(db, times(2)).findByCompanyNumber("470813-8895");
+    }
+
+    @Test
+    public void testMutatingAReturnedCustomerLeavesTheCacheUntouched() {
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalId("12345")).thenReturn(createCompany("1", "12345", "470813-8895"));
+        CachingCustomerRespository sut = new CachingCustomerRespository(db, 10);
+        Customer loaded = sut.findByExternalId("12345");
+        Customer cached = sut.findByExternalId("12345");
+
+        // ACT
+        loaded.setName("Never persisted");
+        cached.setName("Never persisted");
+
+        // ASSERT
+        Customer found = sut.findByExternalId("12345");
+        assertNull(found.getName());
+        assertNotSame(cached, found);
+        verify(db, times(1)).findByExternalId("12345");
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedCustomer() {
+        CustomerRespository db = mock(CustomerRespository.class);
+        when(db.findByExternalId("a")).thenReturn(createCompany("1", "a", "1"));
+        when(db.findByExternalId("b")).thenReturn(createCompany("2", "b", "2"));
+        CachingCustomerRespository sut = new CachingCustomerRespository(db, 1);
+
+        // ACT
+        sut.findByExternalId("a");
+        sut.findByExternalId("b");
+        sut.findByExternalId("a");
+
+        // ASSERT
+        assertEquals(1, sut.size());
+        verify(db, times(2)).findByExternalId("a");
+        assertEquals(0, sut.getHitCount());
+    }
+
+    private Customer createCompany(String internalId, String externalId, String companyNumber) {
+        Customer customer = new Customer();
+        customer.setInternalId(internalId);
+        customer.setExternalId(externalId);
+        customer.setMasterExternalId(externalId);
+        customer.setCompanyNumber(companyNumber);
+        customer.setCustomerType(CustomerType.COMPANY);
+
+        return customer;
+    }
+}
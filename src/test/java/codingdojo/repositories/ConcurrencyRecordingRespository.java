@@ -0,0 +1,89 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Customer;
+import codingdojo.models.ShoppingList;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class ConcurrencyRecordingRespository implements CustomerRespository {
+    private final CustomerRespository customerRespository;
+    private final AtomicInteger activeCalls = new AtomicInteger();
+    private final AtomicInteger maxActiveCalls = new AtomicInteger();
+
+    public ConcurrencyRecordingRespository(CustomerRespository customerRespository) {
+        this.customerRespository = customerRespository;
+    }
+
+    public int getMaxActiveCalls() {
+        return maxActiveCalls.get();
+    }
+
+    @Override
+    public Customer update(Customer customer) {
+        return recorded(() -> customerRespository.update(customer));
+    }
+
+    @Override
+    public Customer create(Customer customer) {
+        return recorded(() -> customerRespository.create(customer));
+    }
+
+    @Override
+    public Customer updateShoppingList(ShoppingList consumerShoppingList) {
+        return recorded(() -> customerRespository.updateShoppingList(consumerShoppingList));
+    }
+
+    @Override
+    public void createAll(List<Customer> customers) {
+        recorded(() -> {
+            customerRespository.createAll(customers);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateAll(List<Customer> customers) {
+        recorded(() -> {
+            customerRespository.updateAll(customers);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateShoppingLists(Customer owner, List<ShoppingList> addedShoppingLists) {
+        recorded(() -> {
+            customerRespository.updateShoppingLists(owner, addedShoppingLists);
+            return null;
+        });
+    }
+
+    @Override
+    public Customer findByExternalId(String externalId) {
+        return recorded(() -> customerRespository.findByExternalId(externalId));
+    }
+
+    @Override
+    public Customer findByMasterExternalId(String externalId) {
+        return recorded(() -> customerRespository.findByMasterExternalId(externalId));
+    }
+
+    @Override
+    public Customer findByCompanyNumber(String companyNumber) {
+        return recorded(() -> customerRespository.findByCompanyNumber(companyNumber));
+    }
+
+    private <T> T recorded(Supplier<T> call) {
+        maxActiveCalls.accumulateAndGet(activeCalls.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(1);
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            activeCalls.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package codingdojo.repositories;
+
+import codingdojo.models.Address;
+import codingdojo.models.Customer;
+import codingdojo.models.ShoppingList;
+import codingdojo.types.CustomerType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DurableCustomerRespositoryTest {
+
+    @Test
+    public void testReplaysLogAfterReopen() throws IOException {
+        Path directory = Files.createTempDirectory("customers");
+        try (DurableCustomerRespository sut = open(directory)) {
+            sut.create(createCompany("12345", "470813-8895"));
+            Customer customer = sut.findByExternalId("12345");
+            customer.setName("Acme Ltd.");
+            sut.update(customer);
+        }
+
+        // ACT
+        try (DurableCustomerRespository sut = open(directory)) {
+
+            // ASSERT
+            assertEquals(1, sut.size());
+            assertEquals("Acme Ltd.", sut.findByCompanyNumber("470813-8895").getName());
+            assertEquals(Collections.singletonList("lipstick"), sut.findByExternalId("12345").getShoppingLists().get(0).getProducts());
+            Customer next = sut.create(createCompany("67890", "556677-8899"));
+            assertEquals("2", next.getInternalId());
+        }
+    }
+
+    @Test
+    public void testRecoversFromSnapshotPlusLog() throws IOException {
+        Path directory = Files.createTempDirectory("customers");
+        try (DurableCustomerRespository sut = open(directory)) {
+            sut.create(createCompany("12345", "470813-8895"));
+            sut.snapshot();
+            assertEquals(0, sut.getLogSize());
+            sut.create(createCompany("67890", "556677-8899"));
+        }
+
+        // ACT
+        try (DurableCustomerRespository sut = open(directory)) {
+
+            // ASSERT
+            assertEquals(2, sut.size());
+            assertNotNull(sut.findByExternalId("12345"));
+            assertNotNull(sut.findByExternalId("67890"));
+        }
+    }
+
+    @Test
+    public void testSnapshotsWhenLogExceedsThreshold() throws IOException {
+        Path directory = Files.createTempDirectory("customers");
+        try (DurableCustomerRespository sut = DurableCustomerRespository.open(directory, new InMemoryCustomerRespository(), 64 * 1024, 16 * 1024)) {
+            for (int i = 0; i < 1_000; i++) {
+                sut.create(createCompany("ext-" + i, "company-" + i));
+            }
+            assertTrue(sut.getLogSize() < 16 * 1024);
+        }
+
+        // ACT
+        try (DurableCustomerRespository sut = open(directory)) {
+
+            // ASSERT
+            assertEquals(1_000, sut.size());
+            assertNotNull(sut.findByCompanyNumber("company-999"));
+        }
+    }
+
+    @Test
+    public void testIgnoresTornTailOfLog() throws IOException {
+        Path directory = Files.createTempDirectory("customers");
+        long validSize;
+        try (DurableCustomerRespository sut = open(directory)) {
+            sut.create(createCompany("12345", "470813-8895"));
+            validSize = sut.getLogSize();
+        }
+        try (FileChannel channel = FileChannel.open(directory.resolve("customers-0.wal"), StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(12).putInt(100).putInt(42).putInt(7);
+            torn.flip();
+            channel.write(torn, validSize);
+        }
+
+        // ACT
+        try (DurableCustomerRespository sut = open(directory)) {
+
+            // ASSERT
+            assertEquals(1, sut.size());
+            assertEquals(validSize, sut.getLogSize());
+        }
+    }
+
+    @Test
+    public void testFailedAppendLeavesStoreUnchanged() throws IOException {
+        Path directory = Files.createTempDirectory("customers");
+        String oversizedName = new String(new char[8 * 1024]).replace('\0', 'x');
+        try (DurableCustomerRespository sut = DurableCustomerRespository.open(directory, new InMemoryCustomerRespository(), 4 * 1024, 1024 * 1024)) {
+            sut.create(createCompany("12345", "470813-8895"));
+            Customer customer = sut.findByExternalId("12345");
+            Customer oversized = createCompany("67890", "556677-8899");
+            oversized.setName(oversizedName);
+
+            // ACT
+            customer.setName(oversizedName);
+            assertThrows(IllegalArgumentException.class, () -> sut.update(customer));
+            assertThrows(IllegalArgumentException.class, () -> sut.create(oversized));
+
+            // ASSERT
+            assertEquals(1, sut.size());
+            assertEquals("Acme Inc.", sut.findByExternalId("12345").getName());
+            assertEquals(1, sut.findByExternalId("12345").getVersion());
+            assertEquals(1, customer.getVersion());
+            assertNull(sut.findByExternalId("67890"));
+            assertNull(oversized.getInternalId());
+        }
+    }
+
+    @Test
+    public void testSkipsLogWhenNoShoppingListWasAdded() throws IOException {
+        Path directory = Files.createTempDirectory("customers");
+        try (DurableCustomerRespository sut = open(directory)) {
+            Customer customer = sut.create(createCompany("12345", "470813-8895"));
+            long logSize = sut.getLogSize();
+
+            // ACT
+            sut.updateShoppingLists(customer, customer.getShoppingLists());
+
+            // ASSERT
+            assertEquals(logSize, sut.getLogSize());
+            assertEquals(1, customer.getVersion());
+        }
+    }
+
+    private DurableCustomerRespository open(Path directory) {
+        return DurableCustomerRespository.open(directory, new InMemoryCustomerRespository(), 64 * 1024, Long.MAX_VALUE);
+    }
+
+    private Customer createCompany(String externalId, String companyNumber) {
+        Customer customer = new Customer();
+        customer.setExternalId(externalId);
+        customer.setMasterExternalId(externalId);
+        customer.setCompanyNumber(companyNumber);
+        customer.setCustomerType(CustomerType.COMPANY);
+        customer.setName("Acme Inc.");
+        customer.setAddress(new Address("123 main st", "Helsingborg", "SE-123 45"));
+        customer.setShoppingLists(Collections.singletonList(new ShoppingList("lipstick")));
+
+        return customer;
+    }
+}
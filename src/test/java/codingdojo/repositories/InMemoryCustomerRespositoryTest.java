@@ -0,0 +1,221 @@
+package codingdojo.repositories;
+
+import codingdojo.exceptions.ConcurrentUpdateException;
+import codingdojo.models.Address;
+import codingdojo.models.Customer;
+import codingdojo.models.ProductDictionary;
+import codingdojo.models.ShoppingList;
+import codingdojo.types.CustomerType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryCustomerRespositoryTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "offHeap"})
+    public void testCreateAndFindByEveryKey(String storage) {
+        InMemoryCustomerRespository sut = create(storage);
+        Customer customer = createCompany("12345", "470813-8895");
+
+        // ACT
+        Customer created = sut.create(customer);
+
+        // ASSERT
+        assertNotNull(created.getInternalId());
+        assertEquals(customer, sut.findByExternalId("12345"));
+        assertEquals(customer, sut.findByMasterExternalId("12345"));
+        assertEquals(customer, sut.findByCompanyNumber("470813-8895"));
+        assertNotSame(customer, sut.findByExternalId("12345"));
+        assertEquals(1, sut.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "offHeap"})
+    public void testUpdateReindexesChangedKeys(String storage) {
+        InMemoryCustomerRespository sut = create(storage);
+        sut.create(createCompany(null, "470813-8895"));
+        Customer customer = sut.findByCompanyNumber("470813-8895");
+
+        // ACT
+        customer.setExternalId("12345");
+        customer.setMasterExternalId("12345");
+        customer.setCompanyNumber("556677-8899");
+        sut.update(customer);
+
+        // ASSERT
+        assertNull(sut.findByCompanyNumber("470813-8895"));
+        assertEquals(customer, sut.findByCompanyNumber("556677-8899"));
+        assertEquals(customer, sut.findByExternalId("12345"));
+        assertEquals(1, sut.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "offHeap"})
+    public void testReturnedCustomersAreDetached(String storage) {
+        InMemoryCustomerRespository sut = create(storage);
+        sut.create(createCompany("12345", "470813-8895"));
+
+        // ACT
+        sut.findByExternalId("12345").setName("changed");
+
+        // ASSERT
+        assertEquals("Acme Inc.", sut.findByExternalId("12345").getName());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "offHeap"})
+    public void testUpdateRejectsStaleVersion(String storage) {
+        InMemoryCustomerRespository sut = create(storage);
+        sut.create(createCompany("12345", "470813-8895"));
+        Customer first = sut.findByExternalId("12345");
+        Customer second = sut.findByExternalId("12345");
+        first.setName("Acme Ltd.");
+        sut.update(first);
+
+        // ACT
+        second.setName("Acme AB");
+
+        // ASSERT
+        assertThrows(ConcurrentUpdateException.class, () -> sut.update(second));
+        assertEquals(2, first.getVersion());
+        assertEquals("Acme Ltd.", sut.findByExternalId("12345").getName());
+        assertEquals(2, sut.findByExternalId("12345").getVersion());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "offHeap"})
+    public void testUpdateAllRejectsBatchRepeatingACustomer(String storage) {
+        InMemoryCustomerRespository sut = create(storage);
+        sut.create(createCompany("12345", "470813-8895"));
+        Customer renamed = sut.findByExternalId("12345");
+        Customer demoted = sut.findByExternalId("12345");
+        renamed.setName("Acme Ltd.");
+        demoted.setMasterExternalId(null);
+
+        // ACT
+        List<Customer> batch = Arrays.asList(renamed, demoted);
+
+        // ASSERT
+        assertThrows(IllegalArgumentException.class, () -> sut.updateAll(batch));
+        assertEquals(1, sut.findByExternalId("12345").getVersion());
+        assertNotEquals("Acme Ltd.", sut.findByExternalId("12345").getName());
+        assertNotNull(sut.findByMasterExternalId("12345"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "offHeap"})
+    public void testCreateRejectsCustomerCreatedConcurrently(String storage) {
+        InMemoryCustomerRespository sut = create(storage);
+        sut.create(createCompany("12345", "470813-8895"));
+
+        // ACT
+        List<Customer> batch = Arrays.asList(createCompany("67890", "556677-8899"), createCompany("12345", "112233-4455"));
+
+        // ASSERT
+        assertThrows(ConcurrentUpdateException.class, () -> sut.create(createCompany("54321", "470813-8895")));
+        assertThrows(ConcurrentUpdateException.class, () -> sut.createAll(batch));
+        assertNull(sut.findByExternalId("67890"));
+        assertEquals(1, sut.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "offHeap"})
+    public void testUpdateShoppingListsAppliesDelta(String storage) {
+        InMemoryCustomerRespository sut = create(storage);
+        Customer customer = sut.create(createCompany("12345", "470813-8895"));
+
+        // ACT
+        sut.updateShoppingLists(customer, Arrays.asList(new ShoppingList("eyeliner"), new ShoppingList("eyeliner")));
+
+        // ASSERT
+        assertEquals(Arrays.asList(new ShoppingList("lipstick", "blusher"), new ShoppingList("eyeliner")),
+                sut.findByExternalId("12345").getShoppingLists());
+        assertEquals(2, sut.findByExternalId("12345").getVersion());
+        assertEquals(2, customer.getVersion());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "offHeap"})
+    public void testHoldsManyCustomersAcrossUpdates(String storage) {
+        InMemoryCustomerRespository sut = create(storage);
+        for (int i = 0; i < 5_000; i++) {
+            sut.create(createCompany("ext-" + i, "company-" + i));
+        }
+
+        // ACT
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 5_000; i++) {
+                Customer customer = sut.findByExternalId("ext-" + i);
+                customer.setBonusPointsBalance(round);
+                sut.update(customer);
+            }
+        }
+
+        // ASSERT
+        List<Customer> customers = new ArrayList<>();
+        sut.forEach(customers::add);
+        assertEquals(5_000, customers.size());
+        assertEquals(Integer.valueOf(2), sut.findByCompanyNumber("company-4999").getBonusPointsBalance());
+    }
+
+    @Test
+    public void testRejectedWriteKeepsCustomerIndexed() {
+        InMemoryCustomerRespository sut = InMemoryCustomerRespository.offHeap(1024);
+        sut.create(createCompany("12345", "470813-8895"));
+        Customer customer = sut.findByExternalId("12345");
+        String oversizedName = new String(new char[2048]).replace('\0', 'x');
+
+        // ACT
+        customer.setCompanyNumber("556677-8899");
+        customer.setName(oversizedName);
+        assertThrows(IllegalArgumentException.class, () -> sut.update(customer));
+
+        // ASSERT
+        assertEquals(1, customer.getVersion());
+        assertEquals("Acme Inc.", sut.findByExternalId("12345").getName());
+        assertNotNull(sut.findByCompanyNumber("470813-8895"));
+        assertNull(sut.findByCompanyNumber("556677-8899"));
+    }
+
+    @Test
+    public void testInternsStoredProductsInItsOwnBoundedDictionary() {
+        ProductDictionary productDictionary = new ProductDictionary(3);
+        InMemoryCustomerRespository sut = new InMemoryCustomerRespository(productDictionary);
+        Customer customer = createCompany("12345", "470813-8895");
+        customer.setShoppingLists(new ArrayList<>(Arrays.asList(
+                new ShoppingList("lipstick", "blusher"),
+                new ShoppingList("eyeliner", "mascara"))));
+
+        // ACT
+        sut.create(customer);
+
+        // ASSERT
+        assertEquals(3, productDictionary.size());
+        assertEquals(customer.getShoppingLists(), sut.findByExternalId("12345").getShoppingLists());
+    }
+
+    private InMemoryCustomerRespository create(String storage) {
+        return "offHeap".equals(storage) ? InMemoryCustomerRespository.offHeap(64 * 1024) : new InMemoryCustomerRespository();
+    }
+
+    private Customer createCompany(String externalId, String companyNumber) {
+        Customer customer = new Customer();
+        customer.setExternalId(externalId);
+        customer.setMasterExternalId(externalId);
+        customer.setCompanyNumber(companyNumber);
+        customer.setCustomerType(CustomerType.COMPANY);
+        customer.setName("Acme Inc.");
+        customer.setAddress(new Address("123 main st", "Helsingborg", "SE-123 45"));
+        customer.setShoppingLists(Collections.singletonList(new ShoppingList("lipstick", "blusher")));
+
+        return customer;
+    }
+}
@@ -0,0 +1,84 @@
+package codingdojo.repositories;
+
+import codingdojo.models.ChangeEvent;
+import codingdojo.types.ChangeType;
+import codingdojo.types.CustomerField;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedFileChangeSinkTest {
+
+    @Test
+    public void testConsumersTailEventsIncrementally() throws IOException {
+        Path file = Files.createTempDirectory("changes").resolve("changes.log");
+        List<ChangeEvent> consumed = new ArrayList<>();
+        try (MappedFileChangeSink sut = MappedFileChangeSink.open(file, 64 * 1024, 2)) {
+            // ACT
+            sut.publish(Collections.singletonList(created("1", "12345")));
+            sut.publish(Collections.singletonList(demoted("2", "67890")));
+            long position = MappedFileChangeSink.read(file, 0, consumed::add);
+            sut.publish(Collections.singletonList(created("3", "54321")));
+            long next = MappedFileChangeSink.read(file, position, consumed::add);
+
+            // ASSERT
+            assertEquals(Arrays.asList(created("1", "12345"), demoted("2", "67890"), created("3", "54321")), consumed);
+            assertEquals(sut.size(), next);
+        }
+    }
+
+    @Test
+    public void testAppendsAfterExistingEventsOnReopen() throws IOException {
+        Path file = Files.createTempDirectory("changes").resolve("changes.log");
+        try (MappedFileChangeSink sut = MappedFileChangeSink.open(file, 64 * 1024, 100)) {
+            sut.publish(Collections.singletonList(created("1", "12345")));
+        }
+
+        // ACT
+        try (MappedFileChangeSink sut = MappedFileChangeSink.open(file, 64 * 1024, 100)) {
+            sut.publish(Collections.singletonList(demoted("2", "67890")));
+        }
+
+        // ASSERT
+        List<ChangeEvent> consumed = new ArrayList<>();
+        MappedFileChangeSink.read(file, 0, consumed::add);
+        assertEquals(Arrays.asList(created("1", "12345"), demoted("2", "67890")), consumed);
+    }
+
+    @Test
+    public void testPublishedEventsSurviveWithoutClose() throws IOException {
+        Path file = Files.createTempDirectory("changes").resolve("changes.log");
+        MappedFileChangeSink crashed = MappedFileChangeSink.open(file, 64 * 1024, 100);
+
+        // ACT
+        crashed.publish(Collections.singletonList(created("1", "12345")));
+        crashed.publish(Collections.singletonList(demoted("2", "67890")));
+
+        // ASSERT
+        try (MappedFileChangeSink sut = MappedFileChangeSink.open(file, 64 * 1024, 100)) {
+            sut.publish(Collections.singletonList(created("3", "54321")));
+        }
+        List<ChangeEvent> consumed = new ArrayList<>();
+        MappedFileChangeSink.read(file, 0, consumed::add);
+        assertEquals(Arrays.asList(created("1", "12345"), demoted("2", "67890"), created("3", "54321")), consumed);
+    }
+
+    private ChangeEvent created(String internalId, String externalId) {
+        return new ChangeEvent(ChangeType.CREATED, internalId, externalId,
+                EnumSet.of(CustomerField.EXTERNAL_ID, CustomerField.MASTER_EXTERNAL_ID, CustomerField.NAME), null, externalId);
+    }
+
+    private ChangeEvent demoted(String internalId, String externalId) {
+        return new ChangeEvent(ChangeType.DUPLICATE_DEMOTED, internalId, externalId,
+                EnumSet.of(CustomerField.MASTER_EXTERNAL_ID), externalId, null);
+    }
+}
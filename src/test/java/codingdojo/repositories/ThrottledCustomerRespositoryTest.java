@@ -0,0 +1,35 @@
+package codingdojo.repositories;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThrottledCustomerRespositoryTest {
+
+    @Test
+    public void testPermitsCapConcurrentRepositoryCalls() {
+        ConcurrencyRecordingRespository db = new ConcurrencyRecordingRespository(new InMemoryCustomerRespository());
+        ThrottledCustomerRespository sut = new ThrottledCustomerRespository(db, 3);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        // ACT
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String externalId = "ext-" + i;
+            calls.add(CompletableFuture.runAsync(() -> sut.findByExternalId(externalId), executor));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])).join();
+        executor.shutdown();
+
+        // ASSERT
+        assertTrue(db.getMaxActiveCalls() <= 3, "max concurrent calls: " + db.getMaxActiveCalls());
+        assertTrue(db.getMaxActiveCalls() > 1, "max concurrent calls: " + db.getMaxActiveCalls());
+        assertEquals(3, sut.getAvailablePermits());
+    }
+}
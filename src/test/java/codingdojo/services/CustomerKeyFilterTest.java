@@ -0,0 +1,78 @@
+package codingdojo.services;
+
+import codingdojo.models.Customer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomerKeyFilterTest {
+
+    @Test
+    public void testNeverReportsAnAddedKeyAsAbsent() {
+        CustomerKeyFilter filter = new CustomerKeyFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(createCompany("ext-" + i, "company-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContainExternalId("ext-" + i));
+            assertTrue(filter.mightContainMasterExternalId("ext-" + i));
+            assertTrue(filter.mightContainCompanyNumber("company-" + i));
+            if (filter.mightContainExternalId("missing-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+        assertFalse(filter.mightContainCompanyNumber("ext-1"));
+        assertFalse(filter.mightContainExternalId(null));
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        CustomerKeyFilter filter = new CustomerKeyFilter(100, 0.01);
+        filter.put(createCompany("12345", "470813-8895"));
+        Path file = Files.createTempFile("customer-keys", ".filter");
+
+        // ACT
+        filter.save(file);
+        CustomerKeyFilter loaded = CustomerKeyFilter.load(file);
+
+        // ASSERT
+        assertEquals(filter.getHashCount(), loaded.getHashCount());
+        assertEquals(filter.getBitCount(), loaded.getBitCount());
+        assertTrue(loaded.mightContainExternalId("12345"));
+        assertTrue(loaded.mightContainCompanyNumber("470813-8895"));
+    }
+
+    @Test
+    public void testRebuildDropsStaleKeys() {
+        CustomerKeyFilter filter = new CustomerKeyFilter(100, 0.001);
+        filter.put(createCompany("12345", "470813-8895"));
+        List<Customer> store = Arrays.asList(createCompany("67890", "556677-8899"));
+
+        // ACT
+        filter.rebuild(store::forEach);
+
+        // ASSERT
+        assertFalse(filter.mightContainExternalId("12345"));
+        assertTrue(filter.mightContainExternalId("67890"));
+        assertTrue(filter.mightContainCompanyNumber("556677-8899"));
+    }
+
+    private Customer createCompany(String externalId, String companyNumber) {
+        Customer customer = new Customer();
+        customer.setExternalId(externalId);
+        customer.setMasterExternalId(externalId);
+        customer.setCompanyNumber(companyNumber);
+
+        return customer;
+    }
+}
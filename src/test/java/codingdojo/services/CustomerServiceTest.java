@@ -0,0 +1,40 @@
+package codingdojo.services;
+
+import codingdojo.models.Customer;
+import codingdojo.models.ShoppingList;
+import codingdojo.repositories.InMemoryCustomerRespository;
+import codingdojo.types.CustomerType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomerServiceTest {
+
+    @Test
+    public void testUpdateShoppingListsWritesOnlyTheAddedLists() {
+        InMemoryCustomerRespository db = new InMemoryCustomerRespository();
+        Customer customer = new Customer();
+        customer.setExternalId("12345");
+        customer.setMasterExternalId("12345");
+        customer.setCustomerType(CustomerType.PERSON);
+        customer.addShoppingList(new ShoppingList("lipstick"));
+        db.create(customer);
+        CustomerService sut = new CustomerService(db);
+
+        // ACT
+        Customer updated = sut.updateShoppingLists(customer, Arrays.asList(new ShoppingList("lipstick"), new ShoppingList("eyeliner")));
+
+        // ASSERT
+        assertSame(customer, updated);
+        assertEquals(Arrays.asList(new ShoppingList("lipstick"), new ShoppingList("eyeliner")),
+                db.findByExternalId("12345").getShoppingLists());
+        assertEquals(2, updated.getVersion());
+        updated.setName("Jane");
+        assertEquals(3, db.update(updated).getVersion());
+        assertSame(customer, sut.updateShoppingLists(customer, Collections.singletonList(new ShoppingList("eyeliner"))));
+        assertEquals(3, db.findByExternalId("12345").getVersion());
+    }
+}
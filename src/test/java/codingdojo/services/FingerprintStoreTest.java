@@ -0,0 +1,74 @@
+package codingdojo.services;
+
+import codingdojo.models.Address;
+import codingdojo.models.ExternalCustomer;
+import codingdojo.models.ShoppingList;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FingerprintStoreTest {
+
+    @Test
+    public void testFingerprintIsStableAndSensitiveToSyncedFields() {
+        ExternalCustomer first = createExternalCustomer();
+        ExternalCustomer second = createExternalCustomer();
+
+        assertEquals(first.fingerprint(), second.fingerprint());
+
+        second.setShoppingLists(Arrays.asList(new ShoppingList("lipstick"), new ShoppingList("blusher")));
+        assertNotEquals(first.fingerprint(), second.fingerprint());
+
+        second = createExternalCustomer();
+        second.setBonusPointsBalance(11);
+        assertNotEquals(first.fingerprint(), second.fingerprint());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        FingerprintStore store = new FingerprintStore(2);
+        store.put("1", 1L);
+        store.put("2", 2L);
+        assertTrue(store.matches("1", 1L));
+
+        store.put("3", 3L);
+
+        assertEquals(2, store.size());
+        assertTrue(store.matches("1", 1L));
+        assertFalse(store.matches("2", 2L));
+        assertTrue(store.matches("3", 3L));
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        Path file = Files.createTempFile("fingerprints", ".bin");
+        FingerprintStore store = new FingerprintStore(10);
+        store.put("1", 1L);
+        store.put("2", -2L);
+        store.save(file);
+
+        FingerprintStore loaded = FingerprintStore.load(file, 10);
+
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.matches("1", 1L));
+        assertTrue(loaded.matches("2", -2L));
+        assertFalse(loaded.matches("2", 2L));
+        Files.delete(file);
+    }
+
+    private ExternalCustomer createExternalCustomer() {
+        ExternalCustomer externalCustomer = new ExternalCustomer();
+        externalCustomer.setExternalId("12345");
+        externalCustomer.setName("Acme Inc.");
+        externalCustomer.setAddress(new Address("123 main st", "Helsingborg", "SE-123 45"));
+        externalCustomer.setBonusPointsBalance(10);
+        externalCustomer.setShoppingLists(Arrays.asList(new ShoppingList("lipstick", "blusher")));
+
+        return externalCustomer;
+    }
+}
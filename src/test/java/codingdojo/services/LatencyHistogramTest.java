@@ -0,0 +1,42 @@
+package codingdojo.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // ACT
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        // ASSERT
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        assertEquals(50_000_000, histogram.getValueAtPercentile(50.0), 50_000_000 / 64.0);
+        assertEquals(99_000_000, histogram.getValueAtPercentile(99.0), 99_000_000 / 64.0);
+        assertEquals(100_000_000, histogram.getValueAtPercentile(100.0));
+        assertEquals(1_000, histogram.getValueAtPercentile(0.0), 1_000 / 64.0);
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // ACT
+        histogram.record(3);
+        histogram.record(5);
+        histogram.record(7);
+
+        // ASSERT
+        assertEquals(3, histogram.getValueAtPercentile(10.0));
+        assertEquals(5, histogram.getValueAtPercentile(50.0));
+        assertEquals(7, histogram.getValueAtPercentile(99.0));
+        assertEquals(5.0, histogram.getMean());
+    }
+}
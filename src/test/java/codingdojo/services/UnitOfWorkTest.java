@@ -0,0 +1,73 @@
+package codingdojo.services;
+
+import codingdojo.exceptions.ConflictException;
+import codingdojo.models.Customer;
+import codingdojo.repositories.InMemoryCustomerRespository;
+import codingdojo.types.ConflictType;
+import codingdojo.types.CustomerType;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnitOfWorkTest {
+
+    @Test
+    public void testTakenCompanyNumberFailsCommitBeforeAnyWrite() {
+        InMemoryCustomerRespository db = new InMemoryCustomerRespository();
+        db.create(company("X", "A"));
+        db.create(company("Z", "B"));
+        CustomerService customerService = new CustomerService(db);
+
+        for (boolean async : new boolean[]{false, true}) {
+            UnitOfWork sut = customerService.beginUnitOfWork();
+            Customer demoted = db.findByExternalId("X");
+            demoted.setMasterExternalId(null);
+            sut.registerDirty(demoted);
+            sut.registerNew(company("X", "B"));
+
+            // ACT
+            ConflictException conflict;
+            if (async) {
+                CompletionException failure = assertThrows(CompletionException.class, () -> sut.commitAsync().join());
+                conflict = (ConflictException) failure.getCause();
+            } else {
+                conflict = assertThrows(ConflictException.class, sut::commit);
+            }
+
+            // ASSERT
+            assertEquals(ConflictType.COMPANY_NUMBER_TAKEN, conflict.getConflict().getConflictType());
+            assertEquals("X", db.findByExternalId("X").getMasterExternalId());
+            assertEquals("A", db.findByExternalId("X").getCompanyNumber());
+            assertEquals(2, db.size());
+        }
+    }
+
+    @Test
+    public void testCompanyNumberReleasedInTheSameCommitCanBeClaimed() {
+        InMemoryCustomerRespository db = new InMemoryCustomerRespository();
+        db.create(company("Z", "B"));
+        UnitOfWork sut = new CustomerService(db).beginUnitOfWork();
+        Customer released = db.findByExternalId("Z");
+        released.setCompanyNumber("C");
+        sut.registerDirty(released);
+        sut.registerNew(company("X", "B"));
+
+        // ACT
+        sut.commit();
+
+        // ASSERT
+        assertEquals("X", db.findByCompanyNumber("B").getExternalId());
+        assertEquals("Z", db.findByCompanyNumber("C").getExternalId());
+    }
+
+    private static Customer company(String externalId, String companyNumber) {
+        Customer customer = new Customer();
+        customer.setExternalId(externalId);
+        customer.setMasterExternalId(externalId);
+        customer.setCompanyNumber(companyNumber);
+        customer.setCustomerType(CustomerType.COMPANY);
+        return customer;
+    }
+}